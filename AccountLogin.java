@@ -1,92 +1,138 @@
 import javax.swing.*;
 import java.awt.*;
-import java.io.*;
-import java.util.*;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
 
 public class AccountLogin {
-    private static final String FILE_NAME = "user_accounts.txt";
-    private static Map<String, String> accounts = new HashMap<>();
+    private static final Path LEGACY_FILE = Path.of("user_accounts.txt"); // Imported once into the store
+    private static AccountStore accounts;
+    private static LoginService loginService;
     private static String loggedInUser = null;
 
+    // Dialog state, only touched on the EDT
+    private static JDialog dialog;
+    private static JTextField usernameField;
+    private static JPasswordField passwordField;
+    private static JLabel statusLabel;
+    private static JButton[] buttons;
+
+    /**
+     * Opens the account store on a background thread, since it reads and may import
+     * files, then shows the login dialog on the EDT. Safe to call from the EDT.
+     */
     public static void main(String[] args) {
-        loadAccountsFromFile();
-        showLoginDialog();
+        // Not a daemon, so the JVM stays up until the dialog is showing
+        new Thread(() -> {
+            try {
+                openAccounts();
+                SwingUtilities.invokeLater(AccountLogin::showLoginDialog);
+            } catch (IOException e) {
+                SwingUtilities.invokeLater(() -> {
+                    JOptionPane.showMessageDialog(null, "Could not open the account store: " + e.getMessage(),
+                            "Error", JOptionPane.ERROR_MESSAGE);
+                    System.exit(1);
+                });
+            }
+        }, "account-loader").start();
+    }
+
+    private static void openAccounts() throws IOException {
+        accounts = AccountStore.open(AccountStore.DIRECTORY);
+        loginService = new LoginService(accounts);
+        int imported = loginService.importLegacy(LEGACY_FILE);
+        if (imported > 0) {
+            System.out.println("Imported " + imported + " accounts from " + LEGACY_FILE);
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            loginService.close();
+            accounts.close();
+        }));
     }
 
+    /**
+     * Shows the one login dialog. Failed attempts leave it open with a message;
+     * checks run on the login service so the dialog keeps painting meanwhile.
+     */
     private static void showLoginDialog() {
-        JTextField usernameField = new JTextField(15);
-        JPasswordField passwordField = new JPasswordField(15);
+        usernameField = new JTextField(15);
+        passwordField = new JPasswordField(15);
+        statusLabel = new JLabel(" ");
 
-        JPanel panel = new JPanel(new GridLayout(3, 2, 5, 5));
-        panel.add(new JLabel("Username:"));
-        panel.add(usernameField);
-        panel.add(new JLabel("Password:"));
-        panel.add(passwordField);
+        JPanel fields = new JPanel(new GridLayout(2, 2, 5, 5));
+        fields.add(new JLabel("Username:"));
+        fields.add(usernameField);
+        fields.add(new JLabel("Password:"));
+        fields.add(passwordField);
 
-        int option = JOptionPane.showOptionDialog(null, panel, "Login or Register",
-                JOptionPane.YES_NO_CANCEL_OPTION, JOptionPane.PLAIN_MESSAGE, null,
-                new String[]{"Login", "Register", "Exit"}, "Login");
+        JButton loginButton = new JButton("Login");
+        JButton registerButton = new JButton("Register");
+        JButton exitButton = new JButton("Exit");
+        buttons = new JButton[]{loginButton, registerButton, exitButton};
+        loginButton.addActionListener(_ -> submit(true));
+        registerButton.addActionListener(_ -> submit(false));
+        exitButton.addActionListener(_ -> System.exit(0));
+        JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        for (JButton button : buttons) {
+            buttonPanel.add(button);
+        }
+
+        JPanel panel = new JPanel(new BorderLayout(5, 5));
+        panel.setBorder(BorderFactory.createEmptyBorder(10, 10, 5, 10));
+        panel.add(fields, BorderLayout.NORTH);
+        panel.add(statusLabel, BorderLayout.CENTER);
+        panel.add(buttonPanel, BorderLayout.SOUTH);
+
+        dialog = new JDialog((Frame) null, "Login or Register");
+        dialog.setDefaultCloseOperation(WindowConstants.EXIT_ON_CLOSE);
+        dialog.setContentPane(panel);
+        dialog.getRootPane().setDefaultButton(loginButton);
+        dialog.pack();
+        dialog.setLocationRelativeTo(null);
+        dialog.setVisible(true);
+    }
 
-        if (option == 0) { // Login
-            String user = usernameField.getText();
-            String pass = new String(passwordField.getPassword());
-            if (accounts.containsKey(user) && accounts.get(user).equals(pass)) {
+    private static void submit(boolean login) {
+        String user = usernameField.getText();
+        char[] pass = passwordField.getPassword(); // Cleared by the service
+        setBusy(true, login ? "Checking..." : "Creating account...");
+        CompletableFuture<LoginService.Result> request = login
+                ? loginService.login(user, pass)
+                : loginService.register(user, pass);
+        request.whenComplete((result, error) -> SwingUtilities.invokeLater(() -> {
+            if (error != null) {
+                error.printStackTrace();
+                showResult("Something went wrong, please try again.", true);
+            } else if (result.isOk() && login) {
                 loggedInUser = user;
+                dialog.dispose();
                 launchGame();
             } else {
-                JOptionPane.showMessageDialog(null, "Invalid credentials.", "Error", JOptionPane.ERROR_MESSAGE);
-                showLoginDialog();
-            }
-        } else if (option == 1) { // Register
-            String user = usernameField.getText();
-            String pass = new String(passwordField.getPassword());
-            if (user.isEmpty() || pass.isEmpty()) {
-                JOptionPane.showMessageDialog(null, "Username and password cannot be empty.", "Error", JOptionPane.ERROR_MESSAGE);
-                showLoginDialog();
-            } else if (accounts.containsKey(user)) {
-                JOptionPane.showMessageDialog(null, "Username already exists.", "Error", JOptionPane.ERROR_MESSAGE);
-                showLoginDialog();
-            } else {
-                accounts.put(user, pass);
-                saveAccountsToFile();
-                JOptionPane.showMessageDialog(null, "Registration successful. You can now log in.", "Success", JOptionPane.INFORMATION_MESSAGE);
-                showLoginDialog();
+                if (result.isOk()) {
+                    passwordField.setText("");
+                }
+                showResult(result.message(), !result.isOk());
             }
-        } else {
-            System.exit(0); // Exit option
-        }
+        }));
     }
 
-    private static void loadAccountsFromFile() {
-        try (BufferedReader reader = new BufferedReader(new FileReader(FILE_NAME))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] parts = line.split(",");
-                if (parts.length == 2) {
-                    accounts.put(parts[0], parts[1]);
-                }
-            }
-        } catch (IOException e) {
-            // File will be created on save
-        }
+    private static void showResult(String message, boolean isError) {
+        setBusy(false, message);
+        statusLabel.setForeground(isError ? Color.RED : new Color(0, 128, 0));
     }
 
-    private static void saveAccountsToFile() {
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(FILE_NAME))) {
-            for (Map.Entry<String, String> entry : accounts.entrySet()) {
-                writer.write(entry.getKey() + "," + entry.getValue());
-                writer.newLine();
-            }
-        } catch (IOException e) {
-            e.printStackTrace();
+    private static void setBusy(boolean busy, String message) {
+        for (JButton button : buttons) {
+            button.setEnabled(!busy || button == buttons[2]);
         }
+        usernameField.setEnabled(!busy);
+        passwordField.setEnabled(!busy);
+        statusLabel.setForeground(Color.DARK_GRAY);
+        statusLabel.setText(message);
     }
 
     private static void launchGame() {
-        SwingUtilities.invokeLater(() -> {
-            SlotMachine game = new SlotMachine();
-            game.setPlayerName(loggedInUser);  // Pass the logged-in user's name
-            game.setVisible(true);  // Show the SlotMachine window
-        });
+        // Assets load in the background behind a splash, then the SlotMachine window opens
+        SwingUtilities.invokeLater(() -> GameLauncher.launch(loggedInUser));
     }
 }
@@ -0,0 +1,788 @@
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.zip.CRC32C;
+
+/**
+ * Account store made of an append-only log and an open-addressing hash index kept in
+ * a memory-mapped file. A registration appends one record and syncs it; a lookup probes
+ * the mapped index and reads one record. Neither touches the other accounts.
+ * <p>
+ * The log is the source of truth. Each record carries a CRC, so a torn append from a
+ * crash is cut off on the next open. The index is periodically checkpointed with the
+ * log length it covers; anything after that is replayed into it on open, and a missing
+ * or mismatched index is rebuilt from the log. A background thread compacts the log
+ * once superseded records outweigh live ones.
+ * <p>
+ * Lookups may run concurrently; appends and compaction's final swap are exclusive.
+ */
+public class AccountStore implements Closeable {
+    static final Path DIRECTORY = Path.of("accounts");
+    private static final String LOG_NAME = "accounts.log";
+    private static final String INDEX_NAME = "accounts.idx";
+    private static final String COMPACT_SUFFIX = ".compact";
+
+    // Log: magic, version, log id, then records of [payload length][CRC][key length][key][value]
+    private static final int LOG_MAGIC = 0x41434C47; // "ACLG"
+    private static final int LOG_VERSION = 1;
+    private static final int LOG_HEADER = 16;
+    private static final int RECORD_HEADER = 8;
+    private static final int MAX_KEY_BYTES = 1024;
+    private static final int MAX_VALUE_BYTES = 16 * 1024;
+    private static final int MAX_PAYLOAD = 2 + MAX_KEY_BYTES + MAX_VALUE_BYTES;
+
+    // Index: magic, capacity, log id, covered log length, then slots of [position + 1][hash][record length]
+    private static final int INDEX_MAGIC = 0x41434958; // "ACIX"
+    private static final int INDEX_HEADER = 32;
+    private static final int SLOT_BYTES = 16;
+    private static final int MIN_CAPACITY = 1024;
+
+    private static final int SCAN_BUFFER = 1 << 20;
+    private static final long MAINTENANCE_SECONDS = 5;
+    private static final long MIN_COMPACT_BYTES = 1 << 20;
+
+    private final Path directory;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ScheduledExecutorService maintenance;
+    private FileChannel log;
+    private long logId;
+    private long logLength;
+    private Index index;
+    private long liveBytes; // Bytes of the records the index points at
+    private boolean dirty; // Appended since the last checkpoint
+
+    private AccountStore(Path directory) {
+        this.directory = directory;
+        this.maintenance = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "account-store");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Opens the store in the given directory, creating it if needed and recovering
+     * from an interrupted append, checkpoint or compaction.
+     */
+    public static AccountStore open(Path directory) throws IOException {
+        AccountStore store = new AccountStore(directory);
+        try {
+            store.load();
+        } catch (IOException | RuntimeException e) {
+            store.maintenance.shutdownNow();
+            store.closeFiles();
+            throw e;
+        }
+        store.maintenance.scheduleWithFixedDelay(store::maintain,
+                MAINTENANCE_SECONDS, MAINTENANCE_SECONDS, TimeUnit.SECONDS);
+        return store;
+    }
+
+    private void load() throws IOException {
+        Files.createDirectories(directory);
+        Files.deleteIfExists(directory.resolve(LOG_NAME + COMPACT_SUFFIX));
+        Files.deleteIfExists(directory.resolve(INDEX_NAME + COMPACT_SUFFIX));
+
+        log = FileChannel.open(directory.resolve(LOG_NAME),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        if (log.size() < LOG_HEADER) {
+            logId = writeLogHeader(log);
+        } else {
+            ByteBuffer header = ByteBuffer.allocate(LOG_HEADER);
+            readFully(log, header, 0);
+            if (header.getInt(0) != LOG_MAGIC || header.getInt(4) != LOG_VERSION) {
+                throw new IOException("Not an account log: " + directory.resolve(LOG_NAME));
+            }
+            logId = header.getLong(8);
+        }
+
+        Path indexPath = directory.resolve(INDEX_NAME);
+        index = Index.open(indexPath);
+        if (index == null || index.logId != logId || index.covered() > log.size() || index.end() > log.size()) {
+            if (index != null) {
+                index.close();
+            }
+            index = Index.create(indexPath, MIN_CAPACITY, logId);
+        }
+
+        // Replay what the index has not seen; the first bad record is a torn append
+        logLength = replay(Math.max(LOG_HEADER, index.covered()));
+        if (logLength < log.size()) {
+            System.err.printf("Account log: dropped %d bytes of an incomplete write%n", log.size() - logLength);
+            log.truncate(logLength);
+            log.force(true);
+        }
+        // Slots mapped after the last checkpoint can point at records that were just dropped
+        if (index.end() > logLength) {
+            System.err.println("Account index: entries past the recovered log, rebuilding it");
+            index.close();
+            index = Index.create(indexPath, MIN_CAPACITY, logId);
+            replay(LOG_HEADER);
+        }
+        liveBytes = index.liveBytes();
+        index.checkpoint(logLength);
+    }
+
+    // Indexes the log's records from the given position; returns where the valid records end
+    private long replay(long from) throws IOException {
+        RecordScanner scanner = new RecordScanner(log, from, log.size());
+        ByteBuffer record;
+        while ((record = scanner.next()) != null) {
+            byte[] key = key(record);
+            index = indexRecord(index, log, hash(key), key, scanner.recordStart(), record.remaining());
+        }
+        return scanner.recordStart();
+    }
+
+    private static long writeLogHeader(FileChannel channel) throws IOException {
+        long id = new SecureRandom().nextLong();
+        ByteBuffer header = ByteBuffer.allocate(LOG_HEADER);
+        header.putInt(LOG_MAGIC).putInt(LOG_VERSION).putLong(id).flip();
+        channel.truncate(0);
+        writeFully(channel, header, 0);
+        channel.force(true);
+        return id;
+    }
+
+    /**
+     * Imports a legacy plain-text "name,password" file once. Each password is handed to
+     * the hasher, which may hash on other threads, and only the hash is stored. Existing
+     * accounts win over the file, and lines that are malformed or too long are skipped
+     * with a message. Once the imported records are synced the file is deleted, so the
+     * plain passwords do not outlive the import. Returns the number of accounts imported.
+     */
+    public int importLegacy(Path file, Function<char[], CompletableFuture<String>> hasher) throws IOException {
+        if (!Files.exists(file)) {
+            return 0;
+        }
+        // In file order, so the first line for a name wins
+        Map<String, LegacyAccount> pending = new LinkedHashMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(file)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                String[] parts = line.split(",");
+                if (parts.length != 2) {
+                    System.err.printf("%s line %d skipped: Expected name,password%n", file, lineNumber);
+                } else if (parts[0].isEmpty() || parts[0].getBytes(StandardCharsets.UTF_8).length > MAX_KEY_BYTES) {
+                    System.err.printf("%s line %d skipped: Account name empty or too long%n", file, lineNumber);
+                } else if (!pending.containsKey(parts[0]) && !contains(parts[0])) {
+                    pending.put(parts[0], new LegacyAccount(lineNumber, hasher.apply(parts[1].toCharArray())));
+                }
+            }
+        }
+
+        int imported = 0;
+        try {
+            for (Map.Entry<String, LegacyAccount> account : pending.entrySet()) {
+                try {
+                    if (put(account.getKey(), account.getValue().hash().join(), true, false)) {
+                        imported++;
+                    }
+                } catch (CompletionException | IllegalArgumentException e) {
+                    System.err.printf("%s line %d skipped: %s%n", file, account.getValue().line(), e.getMessage());
+                }
+            }
+        } finally {
+            // One sync for the whole import rather than one per account, even if it stopped early
+            sync();
+        }
+        Files.delete(file);
+        return imported;
+    }
+
+    // Forces appended records to disk
+    private void sync() throws IOException {
+        lock.writeLock().lock();
+        try {
+            log.force(false);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Stored value for the account, or null if there is none
+    public String get(String name) throws IOException {
+        byte[] key = name.getBytes(StandardCharsets.UTF_8);
+        int hash = hash(key);
+        lock.readLock().lock();
+        try {
+            int mask = index.capacity - 1;
+            for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+                long position = index.position(slot);
+                if (position < 0) {
+                    return null;
+                }
+                if (index.hash(slot) == hash) {
+                    ByteBuffer record = readRecord(log, position, index.length(slot));
+                    if (keyMatches(record, key)) {
+                        return value(record);
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean contains(String name) throws IOException {
+        return get(name) != null;
+    }
+
+    // Adds the account unless the name is taken; returns false if it was
+    public boolean putIfAbsent(String name, String value) throws IOException {
+        return put(name, value, true, true);
+    }
+
+    // Adds or replaces the account
+    public void put(String name, String value) throws IOException {
+        put(name, value, false, true);
+    }
+
+    private boolean put(String name, String value, boolean onlyIfAbsent, boolean sync) throws IOException {
+        byte[] key = name.getBytes(StandardCharsets.UTF_8);
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (key.length == 0 || key.length > MAX_KEY_BYTES || bytes.length > MAX_VALUE_BYTES) {
+            throw new IllegalArgumentException("Account name or value too long");
+        }
+        int hash = hash(key);
+        ByteBuffer record = encode(key, bytes);
+        lock.writeLock().lock();
+        try {
+            int slot = findSlot(index, log, hash, key);
+            boolean exists = index.position(slot) >= 0;
+            if (exists && onlyIfAbsent) {
+                return false;
+            }
+            // A failed write leaves logLength alone, so the next append overwrites the torn bytes
+            long position = logLength;
+            writeFully(log, record, position);
+            if (sync) {
+                log.force(false);
+            }
+            logLength += record.capacity();
+            dirty = true;
+            if (exists) {
+                liveBytes -= index.length(slot);
+            }
+            liveBytes += record.capacity();
+            index.set(slot, position, hash, record.capacity());
+            if (!exists && ++index.count * 2 > index.capacity) {
+                index = grow(index, log, logLength);
+            }
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return index.count;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Inserts or replaces the entry for a record; used while the index is private to one thread
+    private static Index indexRecord(Index index, FileChannel log, int hash, byte[] key, long position, int length)
+            throws IOException {
+        int slot = findSlot(index, log, hash, key);
+        boolean added = index.position(slot) < 0;
+        index.set(slot, position, hash, length);
+        if (added && ++index.count * 2 > index.capacity) {
+            return grow(index, log, position + length);
+        }
+        return index;
+    }
+
+    // Slot holding the key, or the empty slot where it belongs
+    private static int findSlot(Index index, FileChannel log, int hash, byte[] key) throws IOException {
+        int mask = index.capacity - 1;
+        for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+            long position = index.position(slot);
+            if (position < 0 || index.hash(slot) == hash
+                    && keyMatches(readRecord(log, position, index.length(slot)), key)) {
+                return slot;
+            }
+        }
+    }
+
+    /**
+     * Doubles the index into a new file and moves it over the old one. Entries are
+     * unique, so they are placed by hash without reading the log.
+     */
+    private static Index grow(Index old, FileChannel log, long covered) throws IOException {
+        Path path = old.path;
+        Path temp = path.resolveSibling(path.getFileName() + ".grow");
+        Index grown = Index.create(temp, old.capacity * 2, old.logId);
+        old.copyInto(grown);
+        log.force(false);
+        grown.checkpoint(covered);
+        old.close();
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        grown.path = path;
+        return grown;
+    }
+
+    private void maintain() {
+        try {
+            checkpoint();
+            long garbage;
+            lock.readLock().lock();
+            try {
+                garbage = logLength - LOG_HEADER - liveBytes;
+            } finally {
+                lock.readLock().unlock();
+            }
+            if (garbage >= MIN_COMPACT_BYTES && garbage > liveBytes) {
+                compact();
+            }
+        } catch (IOException e) {
+            System.err.println("Account store maintenance failed: " + e.getMessage());
+        }
+    }
+
+    // The log is synced first so the index never vouches for records that are not on disk
+    private void checkpoint() throws IOException {
+        lock.writeLock().lock();
+        try {
+            if (dirty) {
+                log.force(false);
+                index.checkpoint(logLength);
+                dirty = false;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Rewrites the log with only the live records. The bulk copy runs against a snapshot
+     * while lookups and registrations carry on; records appended meanwhile are copied
+     * under the write lock just before the new files are moved into place.
+     */
+    void compact() throws IOException {
+        long[] positions;
+        long snapshotEnd;
+        int live;
+        lock.readLock().lock();
+        try {
+            positions = index.positions();
+            snapshotEnd = logLength;
+            live = index.count;
+        } finally {
+            lock.readLock().unlock();
+        }
+        Arrays.sort(positions);
+
+        Path logPath = directory.resolve(LOG_NAME);
+        Path indexPath = directory.resolve(INDEX_NAME);
+        Path newLogPath = directory.resolve(LOG_NAME + COMPACT_SUFFIX);
+        Path newIndexPath = directory.resolve(INDEX_NAME + COMPACT_SUFFIX);
+        FileChannel newLog = FileChannel.open(newLogPath, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        Index newIndex = null;
+        boolean swapped = false;
+        try {
+            long newId = writeLogHeader(newLog);
+            newIndex = Index.create(newIndexPath, capacityFor(live), newId);
+            long end = LOG_HEADER;
+            // Live records in log order, so the old log is read sequentially
+            RecordScanner scanner = new RecordScanner(log, LOG_HEADER, snapshotEnd);
+            int next = 0;
+            ByteBuffer record;
+            while (next < positions.length && (record = scanner.next()) != null) {
+                if (scanner.recordStart() != positions[next]) {
+                    continue;
+                }
+                next++;
+                byte[] key = key(record);
+                int length = record.remaining();
+                end += writeFully(newLog, record, end);
+                newIndex.insertUnique(hash(key), end - length, length);
+            }
+            if (next < positions.length) {
+                throw new IOException("Account log changed under compaction");
+            }
+
+            lock.writeLock().lock();
+            try {
+                scanner = new RecordScanner(log, snapshotEnd, logLength);
+                while ((record = scanner.next()) != null) {
+                    byte[] key = key(record);
+                    int length = record.remaining();
+                    end += writeFully(newLog, record, end);
+                    newIndex = indexRecord(newIndex, newLog, hash(key), key, end - length, length);
+                }
+                newLog.force(true);
+                newIndex.checkpoint(end);
+                long before = logLength;
+
+                // A crash between the moves leaves a new log with the old index, which is then rebuilt
+                Files.move(newLogPath, logPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                Files.move(newIndexPath, indexPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                swapped = true;
+                newIndex.path = indexPath;
+                log.close();
+                index.close();
+                log = newLog;
+                logId = newId;
+                logLength = end;
+                index = newIndex;
+                liveBytes = index.liveBytes();
+                dirty = false;
+                System.out.printf("Account log compacted: %d accounts, %d -> %d bytes%n", index.count, before, end);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } finally {
+            if (!swapped) {
+                newLog.close();
+                if (newIndex != null) {
+                    newIndex.close();
+                }
+                Files.deleteIfExists(newLogPath);
+                Files.deleteIfExists(newIndexPath);
+            }
+        }
+    }
+
+    private static int capacityFor(int entries) {
+        return Math.max(MIN_CAPACITY, Integer.highestOneBit(Math.max(1, entries) * 2) * 2);
+    }
+
+    // Stops maintenance and checkpoints the index so the next open has nothing to replay
+    @Override
+    public void close() {
+        maintenance.shutdown();
+        try {
+            maintenance.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        lock.writeLock().lock();
+        try {
+            if (log != null && log.isOpen()) {
+                log.force(false);
+                index.checkpoint(logLength);
+            }
+        } catch (IOException e) {
+            System.err.println("Error checkpointing account index: " + e.getMessage());
+        } finally {
+            closeFiles();
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void closeFiles() {
+        try {
+            if (log != null) {
+                log.close();
+            }
+            if (index != null) {
+                index.close();
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private static ByteBuffer encode(byte[] key, byte[] value) {
+        int payload = 2 + key.length + value.length;
+        ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER + payload);
+        record.putInt(payload).putInt(0).putShort((short) key.length).put(key).put(value);
+        CRC32C crc = new CRC32C();
+        crc.update(record.array(), RECORD_HEADER, payload);
+        record.putInt(4, (int) crc.getValue());
+        return record.flip();
+    }
+
+    private static byte[] key(ByteBuffer record) {
+        int start = record.position();
+        byte[] key = new byte[record.getShort(start + RECORD_HEADER) & 0xFFFF];
+        record.get(start + RECORD_HEADER + 2, key);
+        return key;
+    }
+
+    private static boolean keyMatches(ByteBuffer record, byte[] key) {
+        int start = record.position();
+        if ((record.getShort(start + RECORD_HEADER) & 0xFFFF) != key.length) {
+            return false;
+        }
+        return record.slice(start + RECORD_HEADER + 2, key.length).equals(ByteBuffer.wrap(key));
+    }
+
+    private static String value(ByteBuffer record) {
+        int start = record.position() + RECORD_HEADER + 2 + (record.getShort(record.position() + RECORD_HEADER) & 0xFFFF);
+        return new String(record.array(), record.arrayOffset() + start, record.limit() - start, StandardCharsets.UTF_8);
+    }
+
+    // FNV-1a, folded to 32 bits; the low bits pick the slot
+    static int hash(byte[] key) {
+        long h = 0xCBF29CE484222325L;
+        for (byte b : key) {
+            h ^= b & 0xFF;
+            h *= 0x100000001B3L;
+        }
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private static ByteBuffer readRecord(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer record = ByteBuffer.allocate(length);
+        readFully(channel, record, position);
+        return record.flip();
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of account file");
+            }
+        }
+    }
+
+    private static int writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        int length = buffer.remaining();
+        int written = 0;
+        while (written < length) {
+            written += channel.write(buffer, position + written);
+        }
+        return length;
+    }
+
+    /**
+     * Reads records one after another through a large buffer, checking each CRC.
+     * Stops at the end or at the first record that is cut short or corrupt.
+     */
+    // A legacy line waiting for its password hash
+    private record LegacyAccount(int line, CompletableFuture<String> hash) {
+    }
+
+    private static final class RecordScanner {
+        private final FileChannel channel;
+        private final long end;
+        private final ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER);
+        private final CRC32C crc = new CRC32C();
+        private long bufferStart;
+        private long next;
+        private long recordStart;
+
+        RecordScanner(FileChannel channel, long start, long end) {
+            this.channel = channel;
+            this.end = end;
+            this.next = start;
+            this.recordStart = start;
+            buffer.limit(0);
+        }
+
+        // Log position of the record last returned, or where scanning stopped
+        long recordStart() {
+            return recordStart;
+        }
+
+        // The next record as a view of the buffer, valid until the following call
+        ByteBuffer next() throws IOException {
+            recordStart = next;
+            if (!fill(RECORD_HEADER)) {
+                return null;
+            }
+            int offset = (int) (next - bufferStart);
+            int payload = buffer.getInt(offset);
+            if (payload < 2 || payload > MAX_PAYLOAD || !fill(RECORD_HEADER + payload)) {
+                return null;
+            }
+            offset = (int) (next - bufferStart);
+            crc.reset();
+            crc.update(buffer.slice(offset + RECORD_HEADER, payload));
+            int keyLength = buffer.getShort(offset + RECORD_HEADER) & 0xFFFF;
+            if ((int) crc.getValue() != buffer.getInt(offset + 4) || keyLength == 0 || keyLength > payload - 2) {
+                return null;
+            }
+            next += RECORD_HEADER + payload;
+            return buffer.duplicate().position(offset).limit(offset + RECORD_HEADER + payload);
+        }
+
+        // Makes the given number of bytes at next available in the buffer
+        private boolean fill(int bytes) throws IOException {
+            if (next + bytes > end) {
+                return false;
+            }
+            if (next + bytes <= bufferStart + buffer.limit()) {
+                return true;
+            }
+            buffer.clear();
+            buffer.limit((int) Math.min(SCAN_BUFFER, end - next));
+            bufferStart = next;
+            readFully(channel, buffer, next);
+            buffer.flip();
+            return true;
+        }
+    }
+
+    /**
+     * The mapped hash index. Slots use linear probing and are never removed,
+     * since accounts are never deleted; a replaced account just points elsewhere.
+     */
+    private static final class Index {
+        Path path;
+        final FileChannel channel;
+        final MappedByteBuffer map;
+        final int capacity;
+        final long logId;
+        int count;
+
+        private Index(Path path, FileChannel channel, MappedByteBuffer map, int capacity, long logId) {
+            this.path = path;
+            this.channel = channel;
+            this.map = map;
+            this.capacity = capacity;
+            this.logId = logId;
+        }
+
+        static Index create(Path path, int capacity, long logId) throws IOException {
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_WRITE, 0,
+                    INDEX_HEADER + (long) capacity * SLOT_BYTES);
+            map.putInt(0, INDEX_MAGIC).putInt(4, capacity).putLong(8, logId).putLong(16, 0L);
+            return new Index(path, channel, map, capacity, logId);
+        }
+
+        // The index in the file, or null if there is none or it does not look right
+        static Index open(Path path) throws IOException {
+            if (!Files.exists(path)) {
+                return null;
+            }
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            long size = channel.size();
+            if (size >= INDEX_HEADER && size <= Integer.MAX_VALUE) {
+                MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+                int capacity = map.getInt(4);
+                if (map.getInt(0) == INDEX_MAGIC && Integer.bitCount(capacity) == 1
+                        && size == INDEX_HEADER + (long) capacity * SLOT_BYTES) {
+                    Index index = new Index(path, channel, map, capacity, map.getLong(8));
+                    for (int slot = 0; slot < capacity; slot++) {
+                        if (index.position(slot) >= 0) {
+                            index.count++;
+                        }
+                    }
+                    return index;
+                }
+            }
+            channel.close();
+            return null;
+        }
+
+        private static int offset(int slot) {
+            return INDEX_HEADER + slot * SLOT_BYTES;
+        }
+
+        // Log position of the record in the slot, or -1 if it is empty
+        long position(int slot) {
+            return map.getLong(offset(slot)) - 1;
+        }
+
+        int hash(int slot) {
+            return map.getInt(offset(slot) + 8);
+        }
+
+        int length(int slot) {
+            return map.getInt(offset(slot) + 12);
+        }
+
+        void set(int slot, long position, int hash, int length) {
+            map.putLong(offset(slot), position + 1).putInt(offset(slot) + 8, hash).putInt(offset(slot) + 12, length);
+        }
+
+        void insertUnique(int hash, long position, int length) {
+            int mask = capacity - 1;
+            int slot = hash & mask;
+            while (position(slot) >= 0) {
+                slot = (slot + 1) & mask;
+            }
+            set(slot, position, hash, length);
+            count++;
+        }
+
+        void copyInto(Index other) {
+            for (int slot = 0; slot < capacity; slot++) {
+                long position = position(slot);
+                if (position >= 0) {
+                    other.insertUnique(hash(slot), position, length(slot));
+                }
+            }
+        }
+
+        long[] positions() {
+            long[] positions = new long[count];
+            int n = 0;
+            for (int slot = 0; slot < capacity; slot++) {
+                long position = position(slot);
+                if (position >= 0) {
+                    positions[n++] = position;
+                }
+            }
+            return positions;
+        }
+
+        // End of the furthest record any slot points at
+        long end() {
+            long end = 0L;
+            for (int slot = 0; slot < capacity; slot++) {
+                long position = position(slot);
+                if (position >= 0) {
+                    end = Math.max(end, position + length(slot));
+                }
+            }
+            return end;
+        }
+
+        long liveBytes() {
+            long bytes = 0L;
+            for (int slot = 0; slot < capacity; slot++) {
+                if (position(slot) >= 0) {
+                    bytes += length(slot);
+                }
+            }
+            return bytes;
+        }
+
+        // Log length whose records are all in the index as of the last checkpoint
+        long covered() {
+            return map.getLong(16);
+        }
+
+        // Slots reach the disk before the header that vouches for them
+        void checkpoint(long covered) {
+            map.force();
+            map.putLong(16, covered);
+            map.force();
+        }
+
+        void close() throws IOException {
+            channel.close();
+        }
+    }
+}
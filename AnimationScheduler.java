@@ -0,0 +1,180 @@
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+import javax.swing.Timer;
+
+/**
+ * Drives all reel animation from one Swing timer on the EDT.
+ * Timelines of keyframes and events are queued up front. Each tick applies every
+ * keyframe that is due to an off-screen copy of the reel cells, then pushes only the
+ * cells that changed. If the EDT falls behind, the keyframes that piled up are
+ * applied together and only the last state is shown; events are never dropped.
+ */
+public class AnimationScheduler {
+    // About 60 ticks per second
+    private static final int TICK_MILLIS = 16;
+    private static final int NORMAL_SCALE = SymbolAtlas.NORMAL_SCALE;
+
+    private final SlotMachine slotMachine;
+    private final Timer timer;
+    private final ArrayDeque<Entry> queue = new ArrayDeque<>();
+    private final Cells target = new Cells();
+    private final Cells shown = new Cells();
+    private long queueEndNanos;
+    private long lastTickNanos;
+
+    public AnimationScheduler(SlotMachine slotMachine) {
+        this.slotMachine = slotMachine;
+        this.timer = new Timer(TICK_MILLIS, _ -> timerTick());
+        timer.setCoalesce(true);
+    }
+
+    /**
+     * Queues a timeline to start right after whatever is already playing. Must be called on the EDT.
+     */
+    public void play(Timeline timeline) {
+        long now = System.nanoTime();
+        long start = Math.max(now, queueEndNanos);
+        for (Entry entry : timeline.entries) {
+            queue.add(new Entry(start + entry.at * 1_000_000L, entry.frame, entry.event));
+        }
+        queueEndNanos = start + timeline.cursor * 1_000_000L;
+        if (!timer.isRunning()) {
+            timer.start();
+            lastTickNanos = 0L;
+        }
+        tick();
+    }
+
+    public boolean isIdle() {
+        return queue.isEmpty();
+    }
+
+    // Frame times are sampled only on the timer's cadence; the extra tick from play() is not a frame
+    private void timerTick() {
+        long now = System.nanoTime();
+        if (lastTickNanos != 0L) {
+            GameMetrics.get().recordFrameTime(now - lastTickNanos);
+        }
+        lastTickNanos = now;
+        tick();
+    }
+
+    private void tick() {
+        long now = System.nanoTime();
+        while (!queue.isEmpty() && queue.peek().at <= now) {
+            Entry entry = queue.poll();
+            if (entry.frame != null) {
+                entry.frame.accept(target);
+            } else {
+                // Events see the reels exactly as their keyframes left them
+                flush();
+                entry.event.run();
+            }
+        }
+        flush();
+        if (queue.isEmpty()) {
+            timer.stop();
+        }
+    }
+
+    // Pushes only the cells whose text, offset or scale differs from what is on screen
+    private void flush() {
+        long dirty = target.dirty;
+        target.dirty = 0L;
+        while (dirty != 0) {
+            int cell = Long.numberOfTrailingZeros(dirty);
+            dirty &= dirty - 1;
+            int row = cell % SymbolGrid.ROWS;
+            int col = cell / SymbolGrid.ROWS;
+            if (!target.text[cell].equals(shown.text[cell])) {
+                shown.text[cell] = target.text[cell];
+                slotMachine.updateSymbol(row, col, shown.text[cell]);
+            }
+            if (target.offset[cell] != shown.offset[cell]) {
+                shown.offset[cell] = target.offset[cell];
+                slotMachine.offsetSymbol(row, col, shown.offset[cell]);
+            }
+            if (target.scale[cell] != shown.scale[cell]) {
+                shown.scale[cell] = target.scale[cell];
+                if (shown.scale[cell] == NORMAL_SCALE) {
+                    slotMachine.resetSymbolScale(row, col);
+                } else {
+                    slotMachine.scaleSymbol(row, col, shown.scale[cell]);
+                }
+            }
+        }
+    }
+
+    /**
+     * The reel cells as keyframes see them. Writes mark cells dirty.
+     */
+    public static class Cells {
+        private final String[] text = new String[SymbolGrid.CELLS];
+        private final int[] scale = new int[SymbolGrid.CELLS];
+        private final int[] offset = new int[SymbolGrid.CELLS];
+        private long dirty;
+
+        Cells() {
+            Arrays.fill(text, "");
+            Arrays.fill(scale, NORMAL_SCALE);
+        }
+
+        public void setText(int row, int col, String value) {
+            int cell = col * SymbolGrid.ROWS + row;
+            text[cell] = value;
+            dirty |= 1L << cell;
+        }
+
+        public String getText(int row, int col) {
+            return text[col * SymbolGrid.ROWS + row];
+        }
+
+        // Vertical offset in percent of a cell height
+        public void setOffset(int row, int col, int value) {
+            int cell = col * SymbolGrid.ROWS + row;
+            offset[cell] = value;
+            dirty |= 1L << cell;
+        }
+
+        public void setScale(int row, int col, int value) {
+            int cell = col * SymbolGrid.ROWS + row;
+            scale[cell] = value;
+            dirty |= 1L << cell;
+        }
+
+        public void resetScale(int row, int col) {
+            setScale(row, col, NORMAL_SCALE);
+        }
+    }
+
+    /**
+     * A sequence of keyframes and events laid out on a millisecond cursor.
+     */
+    public static class Timeline {
+        private final List<Entry> entries = new ArrayList<>();
+        private long cursor;
+
+        // Keyframe at the cursor; may be skipped on screen if the EDT is late
+        public Timeline frame(Consumer<Cells> frame) {
+            entries.add(new Entry(cursor, frame, null));
+            return this;
+        }
+
+        // Side effect at the cursor; always runs, in order
+        public Timeline event(Runnable event) {
+            entries.add(new Entry(cursor, null, event));
+            return this;
+        }
+
+        public Timeline pause(long millis) {
+            cursor += millis;
+            return this;
+        }
+    }
+
+    private record Entry(long at, Consumer<Cells> frame, Runnable event) {
+    }
+}
@@ -0,0 +1,111 @@
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.GraphicsEnvironment;
+import java.awt.RenderingHints;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.imageio.ImageIO;
+import javax.swing.ImageIcon;
+
+/**
+ * Decodes each image asset once and keeps screen-compatible copies already laid out
+ * at the size they are drawn, shared by every window. Compatible images are cached
+ * in video memory by Java2D, so repaints become a plain 1:1 blit.
+ */
+public class AssetCache {
+    private static final Map<String, BufferedImage> decoded = new ConcurrentHashMap<>();
+    private static final Map<String, BufferedImage> prepared = new ConcurrentHashMap<>();
+    // Cached in place of assets that failed to load, so they are not retried on every repaint
+    private static final BufferedImage MISSING = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB);
+
+    private AssetCache() {
+    }
+
+    /**
+     * Returns the decoded image, or null if it could not be read.
+     */
+    public static BufferedImage get(String path) {
+        BufferedImage image = decoded.computeIfAbsent(path, AssetCache::load);
+        return orNull(image);
+    }
+
+    /**
+     * Returns the image stretched to exactly the given size.
+     */
+    public static BufferedImage scaled(String path, int width, int height) {
+        if (width <= 0 || height <= 0) {
+            return null;
+        }
+        return orNull(prepared.computeIfAbsent(path + "@scaled:" + width + "x" + height, _ -> {
+            BufferedImage source = get(path);
+            if (source == null) {
+                return MISSING;
+            }
+            BufferedImage image = createCompatible(width, height, source.getTransparency());
+            Graphics2D g = image.createGraphics();
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.drawImage(source, 0, 0, width, height, null);
+            g.dispose();
+            return image;
+        }));
+    }
+
+    /**
+     * Returns the image at its natural size, centered and cropped to the given bounds,
+     * the way a centered JLabel icon shows it.
+     */
+    public static BufferedImage centered(String path, int width, int height) {
+        return orNull(prepared.computeIfAbsent(path + "@centered:" + width + "x" + height, _ -> {
+            BufferedImage source = get(path);
+            if (source == null) {
+                return MISSING;
+            }
+            BufferedImage image = createCompatible(width, height, Transparency.TRANSLUCENT);
+            Graphics2D g = image.createGraphics();
+            g.drawImage(source, (width - source.getWidth()) / 2, (height - source.getHeight()) / 2, null);
+            g.dispose();
+            return image;
+        }));
+    }
+
+    // ImageIcon for a JLabel, or null so a missing asset leaves the label empty
+    public static ImageIcon icon(BufferedImage image) {
+        return image == null ? null : new ImageIcon(image);
+    }
+
+    private static BufferedImage orNull(BufferedImage image) {
+        return image == MISSING ? null : image;
+    }
+
+    private static BufferedImage load(String path) {
+        try {
+            BufferedImage source = ImageIO.read(new File(path));
+            if (source == null) {
+                System.err.println("Unsupported image: " + path);
+                return MISSING;
+            }
+            BufferedImage image = createCompatible(source.getWidth(), source.getHeight(), source.getTransparency());
+            Graphics2D g = image.createGraphics();
+            g.drawImage(source, 0, 0, null);
+            g.dispose();
+            return image;
+        } catch (IOException e) {
+            System.err.println("Could not load image: " + path);
+            return MISSING;
+        }
+    }
+
+    private static BufferedImage createCompatible(int width, int height, int transparency) {
+        if (GraphicsEnvironment.isHeadless()) {
+            return new BufferedImage(width, height, transparency == Transparency.OPAQUE
+                    ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB);
+        }
+        GraphicsConfiguration config = GraphicsEnvironment.getLocalGraphicsEnvironment()
+                .getDefaultScreenDevice().getDefaultConfiguration();
+        return config.createCompatibleImage(width, height, transparency);
+    }
+}
@@ -0,0 +1,55 @@
+/**
+ * How long an autoplay session runs. Amounts are in milli-credits, see Paytable;
+ * a limit of 0 is switched off.
+ */
+public class AutoplaySettings {
+    private final int spins;
+    private final long balanceFloor;
+    private final long singleWinLimit;
+    private final long lossLimit;
+
+    /**
+     * @param spins          number of spins to play
+     * @param balanceFloor   stop once the balance drops below this
+     * @param singleWinLimit stop after any spin that wins at least this
+     * @param lossLimit      stop once the session has lost at least this
+     */
+    public AutoplaySettings(int spins, long balanceFloor, long singleWinLimit, long lossLimit) {
+        this.spins = Math.max(0, spins);
+        this.balanceFloor = Math.max(0L, balanceFloor);
+        this.singleWinLimit = Math.max(0L, singleWinLimit);
+        this.lossLimit = Math.max(0L, lossLimit);
+    }
+
+    public int getSpins() {
+        return spins;
+    }
+
+    public long getBalanceFloor() {
+        return balanceFloor;
+    }
+
+    public long getSingleWinLimit() {
+        return singleWinLimit;
+    }
+
+    public long getLossLimit() {
+        return lossLimit;
+    }
+
+    /**
+     * Returns a reason to stop after a spin, or null to keep going.
+     */
+    public String stopReason(long balance, long spinWin, long sessionNet) {
+        if (balanceFloor > 0 && balance < balanceFloor) {
+            return "balance below limit";
+        }
+        if (singleWinLimit > 0 && spinWin >= singleWinLimit) {
+            return "big win";
+        }
+        if (lossLimit > 0 && -sessionNet >= lossLimit) {
+            return "loss limit reached";
+        }
+        return null;
+    }
+}
@@ -0,0 +1,73 @@
+/**
+ * One winning evaluation within a spin: the grid that was checked,
+ * what matched, what it paid and the grid after the cascade refill.
+ * Instances are pooled by {@link SpinResult} and overwritten on reuse.
+ */
+public class CascadeStep {
+    private final SymbolGrid grid;
+    private final SymbolGrid cascadedGrid;
+    private final int[] symbolCounts;
+    private long matchedPositions;
+    private long baseWin;
+    private long win;
+    private double mermaidMultiplier;
+    private double mermaidChance;
+
+    CascadeStep(SymbolGrid grid, SymbolGrid cascadedGrid, int[] symbolCounts) {
+        this.grid = grid;
+        this.cascadedGrid = cascadedGrid;
+        this.symbolCounts = symbolCounts;
+    }
+
+    void record(long matchedPositions, long baseWin, long win, double mermaidMultiplier, double mermaidChance) {
+        this.matchedPositions = matchedPositions;
+        this.baseWin = baseWin;
+        this.win = win;
+        this.mermaidMultiplier = mermaidMultiplier;
+        this.mermaidChance = mermaidChance;
+    }
+
+    public SymbolGrid getGrid() {
+        return grid;
+    }
+
+    public int[] getSymbolCounts() {
+        return symbolCounts;
+    }
+
+    // Bit mask of matched cells, see SymbolGrid for the layout
+    public long getMatchedPositions() {
+        return matchedPositions;
+    }
+
+    public boolean isMatched(int row, int col) {
+        return (matchedPositions & SymbolGrid.bit(row, col)) != 0;
+    }
+
+    // Payout for this step in milli-credits before the mermaid multiplier
+    public long getBaseWin() {
+        return baseWin;
+    }
+
+    // Payout for this step in milli-credits, mermaid multiplier already applied
+    public long getWin() {
+        return win;
+    }
+
+    public boolean isMermaidTriggered() {
+        return mermaidMultiplier > 0.0;
+    }
+
+    public double getMermaidMultiplier() {
+        return mermaidMultiplier;
+    }
+
+    // Mermaid chance after this step was settled
+    public double getMermaidChance() {
+        return mermaidChance;
+    }
+
+    public SymbolGrid getCascadedGrid() {
+        return cascadedGrid;
+    }
+}
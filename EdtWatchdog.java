@@ -0,0 +1,166 @@
+import java.awt.AWTEvent;
+import java.awt.EventQueue;
+import java.awt.Toolkit;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Finds events that hold up the Swing event thread. The watchdog replaces the system
+ * event queue with one that timestamps each dispatch; a daemon thread samples it and,
+ * once a single event has run longer than -Dedt.stallMillis (default 100), logs the
+ * EDT's stack trace while it is still stuck, then the event's total time when it ends.
+ * The queue also keeps an estimate of how many events are waiting, for ProfilerOverlay.
+ */
+public final class EdtWatchdog {
+    private static final long STALL_MILLIS = Long.getLong("edt.stallMillis", 100L);
+
+    private static volatile EdtWatchdog installed;
+
+    private final long stallNanos;
+    private final TimedQueue queue = new TimedQueue();
+    private final LongAdder stalls = new LongAdder();
+
+    private EdtWatchdog(long stallNanos) {
+        this.stallNanos = stallNanos;
+    }
+
+    /**
+     * Pushes the timing queue and starts the sampler. Later calls return the same watchdog.
+     */
+    public static synchronized EdtWatchdog install() {
+        if (installed == null) {
+            EdtWatchdog watchdog = new EdtWatchdog(TimeUnit.MILLISECONDS.toNanos(STALL_MILLIS));
+            Toolkit.getDefaultToolkit().getSystemEventQueue().push(watchdog.queue);
+            watchdog.startSampler();
+            installed = watchdog;
+        }
+        return installed;
+    }
+
+    // Null until install() has run
+    public static EdtWatchdog get() {
+        return installed;
+    }
+
+    public long getStallCount() {
+        return stalls.sum();
+    }
+
+    /**
+     * Events posted but not yet dispatched. Coalesced events are never dispatched, so
+     * the count is reset whenever the queue is seen empty; treat it as an estimate.
+     */
+    public int getQueueDepth() {
+        return Math.max(0, queue.depth.get());
+    }
+
+    private void startSampler() {
+        Thread sampler = new Thread(this::sample, "edt-watchdog");
+        sampler.setDaemon(true);
+        sampler.start();
+    }
+
+    private void sample() {
+        // Sample at a quarter of the threshold so a stall is caught soon after it starts
+        long period = Math.max(1L, TimeUnit.NANOSECONDS.toMillis(stallNanos) / 4);
+        long reported = 0L;
+        while (true) {
+            try {
+                TimeUnit.MILLISECONDS.sleep(period);
+            } catch (InterruptedException e) {
+                return;
+            }
+            long sequence = queue.sequence;
+            long started = queue.started;
+            AWTEvent event = queue.current;
+            Thread edt = queue.dispatcher;
+            // An odd sequence means an event is running; report each event once
+            if ((sequence & 1) == 0 || sequence == reported || edt == null) {
+                continue;
+            }
+            long running = System.nanoTime() - started;
+            if (running < stallNanos) {
+                continue;
+            }
+            StackTraceElement[] stack = edt.getStackTrace();
+            // The event may have ended while the stack was taken
+            if (queue.sequence != sequence) {
+                continue;
+            }
+            reported = sequence;
+            stalls.increment();
+            queue.stalled = sequence;
+            StringBuilder text = new StringBuilder();
+            text.append(String.format("EDT stall: %s running for %d ms%n",
+                    describe(event), TimeUnit.NANOSECONDS.toMillis(running)));
+            for (StackTraceElement frame : stack) {
+                text.append("\tat ").append(frame).append(System.lineSeparator());
+            }
+            System.err.print(text);
+        }
+    }
+
+    private static String describe(AWTEvent event) {
+        Object source = event.getSource();
+        return event.getClass().getSimpleName() + " from " + (source == null ? "null" : source.getClass().getName());
+    }
+
+    private static final class TimedQueue extends EventQueue {
+        private final AtomicInteger depth = new AtomicInteger();
+        // Incremented when an event starts and again when it ends, so odd means running
+        private volatile long sequence;
+        private volatile long started;
+        private volatile AWTEvent current;
+        private volatile Thread dispatcher;
+        // Sequence of the event the sampler last reported, written by the sampler
+        private volatile long stalled;
+        private int nesting; // EDT only
+
+        @Override
+        public void postEvent(AWTEvent event) {
+            depth.incrementAndGet();
+            super.postEvent(event);
+        }
+
+        @Override
+        protected void dispatchEvent(AWTEvent event) {
+            depth.decrementAndGet();
+            AWTEvent outer = current;
+            // A modal dialog dispatches events inside another one; time them apart
+            if (nesting > 0) {
+                end();
+            }
+            begin(event);
+            nesting++;
+            try {
+                super.dispatchEvent(event);
+            } finally {
+                nesting--;
+                end();
+                // Time the rest of an outer event from here
+                if (nesting > 0) {
+                    begin(outer);
+                }
+                if (peekEvent() == null) {
+                    depth.set(0);
+                }
+            }
+        }
+
+        private void begin(AWTEvent event) {
+            dispatcher = Thread.currentThread();
+            current = event;
+            started = System.nanoTime();
+            sequence++;
+        }
+
+        private void end() {
+            long ended = sequence++;
+            if (stalled == ended) {
+                System.err.printf("EDT stall: %s took %d ms%n", describe(current),
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+            }
+        }
+    }
+}
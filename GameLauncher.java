@@ -0,0 +1,174 @@
+import java.awt.BorderLayout;
+import java.awt.Color;
+import java.awt.Font;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import javax.swing.BorderFactory;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.JProgressBar;
+import javax.swing.JWindow;
+import javax.swing.SwingConstants;
+import javax.swing.SwingUtilities;
+
+/**
+ * Opens the game window after login. Sounds, images, symbol sprites and the player's
+ * wallet are loaded in parallel on background workers while a splash shows progress,
+ * so the EDT only lays out the frame. Timings are printed once the window is up.
+ */
+public class GameLauncher {
+    private static final int SPLASH_WIDTH = 360;
+    private static final int SPLASH_HEIGHT = 90;
+
+    private final String playerName;
+    private final long startNanos = System.nanoTime();
+    private final List<String> timings = new ArrayList<>();
+    private final AtomicInteger done = new AtomicInteger();
+    private int taskCount;
+    private JWindow splash;
+    private JProgressBar progress;
+    private JLabel status;
+
+    private GameLauncher(String playerName) {
+        this.playerName = playerName;
+    }
+
+    /**
+     * Shows the splash and starts loading. Must be called on the EDT.
+     */
+    public static void launch(String playerName) {
+        EdtWatchdog.install();
+        GameMetrics.get().startEdtProbe();
+        new GameLauncher(playerName).start();
+    }
+
+    private void start() {
+        showSplash();
+        ExecutorService workers = Executors.newFixedThreadPool(
+                Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors())), runnable -> {
+                    Thread thread = new Thread(runnable, "game-loader");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+
+        List<CompletableFuture<?>> tasks = new ArrayList<>();
+        SlotSoundManager soundManager = new SlotSoundManager();
+        tasks.add(CompletableFuture.runAsync(timed("music", () ->
+                soundManager.loadStream(SlotMachine.BACKGROUND_MUSIC, SlotMachine.BACKGROUND_MUSIC_PATH)), workers));
+        for (String[] sound : SlotMachine.SOUNDS) {
+            tasks.add(CompletableFuture.runAsync(timed("sound " + sound[0], () -> soundManager.load(sound[0], sound[1])), workers));
+        }
+        tasks.add(CompletableFuture.runAsync(timed("background", () ->
+                AssetCache.scaled(SlotMachine.BG_PATH, SlotMachine.FRAME_WIDTH, SlotMachine.FRAME_HEIGHT)), workers));
+        tasks.add(CompletableFuture.runAsync(timed("top decor", () ->
+                AssetCache.centered(SlotMachine.TOP_DECOR, SlotMachine.FRAME_WIDTH, SlotMachine.TOP_DECOR_HEIGHT)), workers));
+        tasks.add(CompletableFuture.runAsync(timed("left decor", () ->
+                AssetCache.centered(SlotMachine.LEFT_DECOR, SlotMachine.SIDE_DECOR_WIDTH, SlotMachine.SIDE_DECOR_HEIGHT)), workers));
+        tasks.add(CompletableFuture.runAsync(timed("right decor", () ->
+                AssetCache.centered(SlotMachine.RIGHT_DECOR, SlotMachine.SIDE_DECOR_WIDTH, SlotMachine.SIDE_DECOR_HEIGHT)), workers));
+        CompletableFuture<SymbolAtlas> atlas = CompletableFuture.supplyAsync(
+                timedSupplier("symbol sprites", () -> new SymbolAtlas(SlotMachine.SYMBOL_FONT)), workers);
+        tasks.add(atlas);
+        CompletableFuture<GameState> gameState = CompletableFuture.supplyAsync(
+                timedSupplier("wallet", this::openGameState), workers);
+        tasks.add(gameState);
+        // Progress updates run on the EDT after this method returns, so they see the count
+        taskCount = tasks.size();
+
+        CompletableFuture.allOf(tasks.toArray(new CompletableFuture<?>[0])).whenComplete((_, error) -> {
+            workers.shutdown();
+            SwingUtilities.invokeLater(() -> {
+                if (error != null) {
+                    // Anything that failed is loaded again on the EDT, keeping the player's wallet
+                    error.printStackTrace();
+                    openGame(() -> new SlotMachine(new SymbolAtlas(SlotMachine.SYMBOL_FONT), SlotMachine.loadSounds(),
+                            gameState.isCompletedExceptionally() ? openGameState() : gameState.join()));
+                } else {
+                    openGame(() -> new SlotMachine(atlas.join(), soundManager, gameState.join()));
+                }
+            });
+        });
+    }
+
+    private void openGame(Supplier<SlotMachine> factory) {
+        long layoutStart = System.nanoTime();
+        SlotMachine game = factory.get();
+        game.setPlayerName(playerName);
+        game.setVisible(true);
+        splash.dispose();
+        System.out.printf("Startup: %d ms to first frame%n", (System.nanoTime() - startNanos) / 1_000_000);
+        synchronized (timings) {
+            for (String timing : timings) {
+                System.out.println("  " + timing);
+            }
+        }
+        System.out.printf("  window layout %d ms%n", (System.nanoTime() - layoutStart) / 1_000_000);
+    }
+
+    // The player's persisted balance, or a fresh one if the wallet cannot be opened
+    private GameState openGameState() {
+        try {
+            WalletJournal wallet = WalletJournal.open(WalletJournal.DIRECTORY);
+            Runtime.getRuntime().addShutdownHook(new Thread(wallet::close));
+            return new GameState(wallet, playerName);
+        } catch (IOException e) {
+            System.err.println("Wallet unavailable, balance will not be saved: " + e.getMessage());
+            return new GameState();
+        }
+    }
+
+    private Runnable timed(String name, Runnable task) {
+        return () -> timedSupplier(name, () -> {
+            task.run();
+            return null;
+        }).get();
+    }
+
+    private <T> Supplier<T> timedSupplier(String name, Supplier<T> task) {
+        return () -> {
+            long start = System.nanoTime();
+            T result = task.get();
+            long millis = (System.nanoTime() - start) / 1_000_000;
+            synchronized (timings) {
+                timings.add(String.format("%s %d ms", name, millis));
+            }
+            int finished = done.incrementAndGet();
+            SwingUtilities.invokeLater(() -> {
+                progress.setValue(finished * 100 / taskCount);
+                status.setText("Loaded " + name);
+            });
+            return result;
+        };
+    }
+
+    private void showSplash() {
+        splash = new JWindow();
+        JPanel panel = new JPanel(new BorderLayout(0, 8));
+        panel.setBackground(new Color(0, 40, 80));
+        panel.setBorder(BorderFactory.createEmptyBorder(12, 16, 12, 16));
+
+        JLabel title = new JLabel("Secrets of the Mermaid", SwingConstants.CENTER);
+        title.setForeground(new Color(0, 191, 255));
+        title.setFont(new Font("Arial", Font.BOLD, 18));
+        panel.add(title, BorderLayout.NORTH);
+
+        progress = new JProgressBar(0, 100);
+        panel.add(progress, BorderLayout.CENTER);
+
+        status = new JLabel("Loading...", SwingConstants.CENTER);
+        status.setForeground(Color.WHITE);
+        status.setFont(new Font("Arial", Font.PLAIN, 12));
+        panel.add(status, BorderLayout.SOUTH);
+
+        splash.setContentPane(panel);
+        splash.setSize(SPLASH_WIDTH, SPLASH_HEIGHT);
+        splash.setLocationRelativeTo(null);
+        splash.setVisible(true);
+    }
+}
@@ -1,265 +1,368 @@
 import java.util.Random;
-import java.util.concurrent.CompletableFuture;
-import javax.swing.SwingUtilities;
 
 public class GameLogic {
     // Grid dimensions
-    private static final int ROWS = 5;
-    private static final int COLS = 6;
+    private static final int ROWS = SpinEngine.ROWS;
+    private static final int COLS = SpinEngine.COLS;
 
     // Animation constants
     private static final int SPIN_FRAMES = 20;
     private static final int SPIN_DELAY_BASE = 50;
-    private static final int SCALE_MAX = 130;
-    private static final int SCALE_MIN = 70;
-    private static final int SCALE_STEP = 10;
+    private static final int SCALE_MAX = SymbolAtlas.SCALE_MAX;
+    private static final int SCALE_MIN = SymbolAtlas.SCALE_MIN;
+    private static final int SCALE_STEP = SymbolAtlas.SCALE_STEP;
+    private static final int SCALE_FRAME_DELAY = 50;
+    private static final int FRAME_MILLIS = 16;
+    private static final int DROP_FRAMES = 12;
     private static final int CASCADE_DELAY = 300;
     private static final int UPDATE_DELAY = 500;
 
-    // Game constants
-    private static final int MIN_MATCHES = 8;
-    private static final double MIN_MERMAID_CHANCE = 0.1;
-    private static final double MAX_MERMAID_CHANCE = 1.0;
-    private static final double MERMAID_MULTIPLIER_MIN = 2.0;
-    private static final double MERMAID_MULTIPLIER_RANGE = 5.0;
-
-    // Symbol definitions with their probabilities and payouts
-    private static final Symbol[] SYMBOLS = {
-        new Symbol("🐟", "Fish", 0.30, new double[]{0.25, 0.75, 2.00}),
-        new Symbol("🦀", "Crab", 0.30, new double[]{0.40, 0.90, 4.00}),
-        new Symbol("🐬", "Dolphin", 0.13, new double[]{0.50, 1.00, 5.00}),
-        new Symbol("🐚", "Shell", 0.12, new double[]{0.80, 1.20, 8.00}),
-        new Symbol("⚓", "Anchor", 0.11, new double[]{1.00, 1.50, 10.00}),
-        new Symbol("🔱", "Trident", 0.10, new double[]{1.50, 2.00, 12.00}),
-        new Symbol("💎", "Gem", 0.09, new double[]{2.00, 5.00, 15.00}),
-        new Symbol("🚢", "Ship", 0.08, new double[]{2.50, 10.00, 25.00}),
-        new Symbol("💰", "Treasure", 0.04, new double[]{10.00, 25.00, 50.00})
-    };
+    // Turbo skips the reel scroll and divides every other delay
+    private static final int TURBO_DIVISOR = 4;
+    private static final int AUTOPLAY_BATCH = 10;
+    private static final int TURBO_AUTOPLAY_BATCH = 25;
+    private static final int BATCH_DELAY = 1500;
+    private static final int TURBO_BATCH_DELAY = 400;
+
+    private static final Symbol[] SYMBOLS = SpinEngine.SYMBOLS;
 
     private Random random;
+    private SpinEngine engine;
+    private SpinJournal.Session journal; // Null if the journal could not be created
     private GameState gameState;
     private SlotMachine slotMachine;
-    private double mermaidChance = MIN_MERMAID_CHANCE;
+    private AnimationScheduler animator;
+    private boolean turbo;
+
+    // Autoplay state, only touched on the EDT
+    private AutoplaySettings autoplay;
+    private int autoplaySpinsLeft;
+    private int autoplaySpinsPlayed;
+    private long autoplayNet;
+    private boolean autoplayStopRequested;
 
     public GameLogic(GameState gameState, SlotMachine slotMachine) {
-        this.random = new Random();
+        this.random = new Random(); // Only used for the reel blur, never for outcomes
+        long seed = SpinEngine.newSeed();
+        this.engine = SpinEngine.seeded(seed);
+        engine.setListener(GameMetrics.get()::recordSpin);
+        SpinJournal spinJournal = SpinJournal.createOrNull("game");
+        if (spinJournal != null) {
+            this.journal = spinJournal.openSession("game", seed, gameState.getBalanceMillis());
+            Runtime.getRuntime().addShutdownHook(new Thread(spinJournal::close));
+        }
         this.gameState = gameState;
         this.slotMachine = slotMachine;
+        this.animator = new AnimationScheduler(slotMachine);
     }
 
     /**
      * Initiates a spin if the player has sufficient balance and is not already spinning.
-     * Animates the spin and calculates any wins.
+     * The outcome is settled up front by the engine; the display then catches up
+     * as one timeline. Called on the EDT.
      */
     public void spin() {
-        if (gameState.isSpinning() || gameState.getBalance() < gameState.getTotalBet()) {
+        long clicked = System.nanoTime();
+        // Checks and debits the bet and claims the spin in one step, so a double click spins once
+        long bet = gameState.tryStartSpin();
+        if (bet < 0) {
+            if (gameState.isWalletFailed()) {
+                slotMachine.showWalletFailure();
+            }
             return;
         }
-
-        gameState.setSpinning(true);
-        gameState.updateBalance(-gameState.getTotalBet());
-        slotMachine.updateBalanceDisplay();
-
-        CompletableFuture.runAsync(() -> {
-            try {
-                animateSpinning();
-                String[][] finalGrid = generateFinalGrid();
-                updateGridDisplay(finalGrid);
-                checkConsecutiveWins(finalGrid, gameState.getTotalBet());
-                gameState.setSpinning(false);
-            } catch (InterruptedException e) {
-                e.printStackTrace();
-            }
+        long balanceBefore = gameState.getBalanceMillis() + bet;
+        SpinResult result = journal(engine.settle(gameState, bet));
+
+        AnimationScheduler.Timeline timeline = new AnimationScheduler.Timeline();
+        playSpin(timeline, result, balanceBefore);
+        timeline.event(() -> {
+            gameState.setSpinning(false);
+            GameMetrics.get().recordSpinToSettle(System.nanoTime() - clicked);
         });
+        animator.play(timeline);
     }
 
-    /**
-     * Animates the spinning reels.
-     */
-    private void animateSpinning() throws InterruptedException {
-        for (int i = 0; i < SPIN_FRAMES; i++) {
-            final int iteration = i;
-            SwingUtilities.invokeLater(() -> {
-                for (int row = 0; row < ROWS; row++) {
-                    for (int col = 0; col < COLS; col++) {
-                        slotMachine.updateSymbol(row, col, getRandomSymbol().getEmoji());
-                    }
-                }
-            });
-            Thread.sleep(SPIN_DELAY_BASE + (iteration * 10));
+    // Records a settled spin in the spin journal; null means no spin was played
+    private SpinResult journal(SpinResult result) {
+        if (result != null && journal != null) {
+            journal.recordSpin(gameState.getCoinValueMillis(), gameState.getBetMultiplier(), result);
         }
+        return result;
+    }
+
+    public boolean isTurbo() {
+        return turbo;
+    }
+
+    // Takes effect from the next spin or autoplay batch
+    public void setTurbo(boolean turbo) {
+        this.turbo = turbo;
+    }
+
+    public boolean isAutoplaying() {
+        return autoplay != null;
     }
 
     /**
-     * Generates the final grid of symbols after a spin.
+     * Starts autoplay if no spin is running. Spins are settled a batch at a time ahead
+     * of the display, and each batch is shown as one summary. Without turbo the batch's
+     * best spin is replayed first; in turbo only its final grid is shown.
      */
-    private String[][] generateFinalGrid() {
-        String[][] grid = new String[ROWS][COLS];
-        for (int row = 0; row < ROWS; row++) {
-            for (int col = 0; col < COLS; col++) {
-                grid[row][col] = getRandomSymbol().getEmoji();
+    public void startAutoplay(AutoplaySettings settings) {
+        if (settings.getSpins() == 0 || !gameState.setSpinning(true)) {
+            return;
+        }
+        autoplay = settings;
+        autoplaySpinsLeft = settings.getSpins();
+        autoplaySpinsPlayed = 0;
+        autoplayNet = 0L;
+        autoplayStopRequested = false;
+        slotMachine.setAutoplayActive(true);
+        playAutoplayBatch();
+    }
+
+    // Stops after the batch that is on screen
+    public void stopAutoplay() {
+        autoplayStopRequested = true;
+    }
+
+    private void playAutoplayBatch() {
+        boolean turboBatch = turbo;
+        int batchSize = Math.min(autoplaySpinsLeft, turboBatch ? TURBO_AUTOPLAY_BATCH : AUTOPLAY_BATCH);
+        AnimationScheduler.Timeline timeline = new AnimationScheduler.Timeline();
+        long batchStartBalance = gameState.getBalanceMillis();
+        long batchWin = 0L;
+        SpinResult last = null;
+        SpinResult best = null;
+        long bestBalanceBefore = 0L;
+        int played = 0;
+        String stopReason = autoplayStopRequested ? "stopped" : null;
+
+        for (int i = 0; i < batchSize && stopReason == null; i++) {
+            long balanceBefore = gameState.getBalanceMillis();
+            SpinResult result = journal(engine.spin(gameState));
+            if (result == null) {
+                stopReason = gameState.isWalletFailed() ? "balance not saved" : "insufficient balance";
+                break;
             }
+            autoplaySpinsLeft--;
+            autoplaySpinsPlayed++;
+            played++;
+            autoplayNet += result.getTotalWin() - result.getBet();
+            batchWin += result.getTotalWin();
+            last = result;
+            if (best == null || result.getTotalWin() > best.getTotalWin()) {
+                best = result;
+                bestBalanceBefore = balanceBefore;
+            }
+            stopReason = autoplay.stopReason(gameState.getBalanceMillis(), result.getTotalWin(), autoplayNet);
+        }
+        if (stopReason == null && autoplaySpinsLeft == 0) {
+            stopReason = "done";
         }
-        return grid;
+
+        if (last != null) {
+            if (turboBatch) {
+                showGrid(timeline, last.getFinalGrid());
+            } else {
+                playSpin(timeline, best, bestBalanceBefore);
+            }
+            showBatchSummary(timeline, last, played, batchWin, turboBatch ? TURBO_BATCH_DELAY : BATCH_DELAY);
+        }
+        if (last == null) {
+            timeline.event(() -> slotMachine.showBalance(batchStartBalance));
+        }
+        String reason = stopReason;
+        timeline.event(() -> {
+            if (reason == null && !autoplayStopRequested) {
+                playAutoplayBatch();
+            } else {
+                finishAutoplay(reason == null ? "stopped" : reason);
+            }
+        });
+        animator.play(timeline);
     }
 
-    /**
-     * Updates the display with the given grid of symbols.
-     */
-    private void updateGridDisplay(String[][] grid) {
-        SwingUtilities.invokeLater(() -> {
-            for (int row = 0; row < ROWS; row++) {
-                for (int col = 0; col < COLS; col++) {
-                    slotMachine.updateSymbol(row, col, grid[row][col]);
-                }
+    private void showBatchSummary(AnimationScheduler.Timeline timeline, SpinResult last, int batchSpins,
+                                  long batchWin, int pause) {
+        long balance = gameState.getBalanceMillis();
+        int played = autoplaySpinsPlayed;
+        timeline.event(() -> {
+            if (batchWin > 0) {
+                slotMachine.playSound("smallwin");
             }
+            slotMachine.showBalance(balance);
+            slotMachine.updateMermaidChance(last.getMermaidChance());
+            slotMachine.showWinMessage(String.format("Autoplay %d spins: last %d won $%.2f", played,
+                    batchSpins, Paytable.toCredits(batchWin)));
         });
+        timeline.pause(pause);
+    }
+
+    private void finishAutoplay(String reason) {
+        slotMachine.showWinMessage(String.format("Autoplay %s after %d spins, net $%.2f", reason,
+                autoplaySpinsPlayed, Paytable.toCredits(autoplayNet)), 8000);
+        autoplay = null;
+        gameState.setSpinning(false);
+        slotMachine.setAutoplayActive(false);
+        if (gameState.isWalletFailed()) {
+            slotMachine.showWalletFailure();
+        }
     }
 
     /**
-     * Returns a random symbol based on their probabilities.
+     * Lays out the full replay of one settled spin. The balance shown starts from
+     * the balance before the spin and follows the wins as they are revealed.
      */
-    private Symbol getRandomSymbol() {
-        double value = random.nextDouble();
-        double cumulative = 0.0;
-        
-        for (Symbol symbol : SYMBOLS) {
-            cumulative += symbol.getProbability();
-            if (value <= cumulative) {
-                return symbol;
-            }
-        }
-        
-        return SYMBOLS[SYMBOLS.length - 1];
+    private void playSpin(AnimationScheduler.Timeline timeline, SpinResult result, long balanceBefore) {
+        long afterBet = balanceBefore - result.getBet();
+        timeline.event(() -> slotMachine.showBalance(afterBet));
+        animateSpinning(timeline);
+        showGrid(timeline, result.getInitialGrid());
+        replayCascades(timeline, result, afterBet);
     }
 
-    private void checkConsecutiveWins(String[][] grid, double bet) {
-        StringBuilder totalWinMessage = new StringBuilder();
-        calculateWins(grid, bet, totalWinMessage, 0.0, 1);
+    private int delay(int normal) {
+        return turbo ? normal / TURBO_DIVISOR : normal;
     }
 
     /**
-     * Calculates wins for the current grid and handles cascading.
+     * Scrolls the reels down one row per spin frame, slowing down frame by frame.
+     * Each frame shifts the symbols down a row and slides them in from one row up,
+     * so the motion is continuous.
      */
-    private void calculateWins(String[][] grid, double bet, StringBuilder totalWinMessage, 
-                             double totalWinsSoFar, int consecutiveWinCount) {
-        int[] symbolCounts = countSymbols(grid);
-        boolean[][] matchedPositions = new boolean[ROWS][COLS];
-        boolean hasWin = markMatchingPositions(grid, symbolCounts, matchedPositions);
-
-        if (!hasWin) {
-            if (consecutiveWinCount > 1) {
-                slotMachine.showWinMessage(String.format("Total Amount Won: $%.2f", totalWinsSoFar), 8000);
+    private void animateSpinning(AnimationScheduler.Timeline timeline) {
+        int frames = turbo ? 0 : SPIN_FRAMES;
+        for (int i = 0; i < frames; i++) {
+            int frameDelay = SPIN_DELAY_BASE + (i * 10);
+            int slides = Math.max(1, frameDelay / FRAME_MILLIS);
+            timeline.frame(cells -> {
+                for (int col = 0; col < COLS; col++) {
+                    for (int row = ROWS - 1; row > 0; row--) {
+                        cells.setText(row, col, cells.getText(row - 1, col));
+                    }
+                    cells.setText(0, col, SpinEngine.randomSymbol(random).getEmoji());
+                }
+            });
+            for (int slide = 0; slide < slides; slide++) {
+                int offset = -100 + 100 * slide / slides;
+                timeline.frame(cells -> setAllOffsets(cells, offset));
+                timeline.pause(frameDelay / slides);
             }
-            updateMermaidChance(0.05); // Increase chance by 5% on loss
-            return;
         }
+    }
 
-        double currentRoundWin = calculateWinAmount(grid, symbolCounts, matchedPositions, bet);
-        StringBuilder winMessage = buildWinMessage(grid, symbolCounts, matchedPositions, bet);
-        playWinSounds(grid, symbolCounts, matchedPositions);
-
-        // Apply mermaid multiplier if triggered
-        if (random.nextDouble() < mermaidChance) {
-            double mermaidMultiplier = MERMAID_MULTIPLIER_MIN + (random.nextDouble() * MERMAID_MULTIPLIER_RANGE);
-            currentRoundWin *= mermaidMultiplier;
-            updateMermaidChance(-0.9); // Reset chance after getting mermaid multiplier
-            slotMachine.showWinMessage(String.format("Mermaid Multiplier (%.1fx): You Won $%.2f!", mermaidMultiplier, currentRoundWin), 5000);
-        } else {
-            slotMachine.showWinMessage(String.format("You Won $%.2f!", currentRoundWin));
-            if (consecutiveWinCount > 1) {
-                updateMermaidChance(0.1); // Increase chance by 10% on consecutive win without mermaid
+    private static void setAllOffsets(AnimationScheduler.Cells cells, int offset) {
+        for (int row = 0; row < ROWS; row++) {
+            for (int col = 0; col < COLS; col++) {
+                cells.setOffset(row, col, offset);
             }
         }
-
-        double newTotalWins = totalWinsSoFar + currentRoundWin;
-        appendWinMessage(totalWinMessage, winMessage);
-        updateGameState(currentRoundWin);
-        animateMatchesAndCascade(matchedPositions, totalWinMessage.toString(), newTotalWins, grid, bet, 
-                               totalWinMessage, newTotalWins, consecutiveWinCount + 1);
     }
 
     /**
-     * Counts occurrences of each symbol in the grid.
+     * Shows the given grid of symbols in place.
      */
-    private int[] countSymbols(String[][] grid) {
-        int[] counts = new int[SYMBOLS.length];
-        for (int row = 0; row < ROWS; row++) {
-            for (int col = 0; col < COLS; col++) {
-                String symbol = grid[row][col];
-                for (int k = 0; k < SYMBOLS.length; k++) {
-                    if (symbol.equals(SYMBOLS[k].getEmoji())) {
-                        counts[k]++;
-                        break;
-                    }
+    private void showGrid(AnimationScheduler.Timeline timeline, SymbolGrid symbolGrid) {
+        String[][] grid = symbolGrid.toEmojiGrid();
+        timeline.frame(cells -> {
+            for (int row = 0; row < ROWS; row++) {
+                for (int col = 0; col < COLS; col++) {
+                    cells.setText(row, col, grid[row][col]);
+                    cells.setOffset(row, col, 0);
                 }
             }
-        }
-        return counts;
+        });
     }
 
     /**
-     * Marks positions of matching symbols and returns whether there was a win.
+     * Shows the cascaded grid with every symbol falling from where it was,
+     * and refills falling in from above the reels.
      */
-    private boolean markMatchingPositions(String[][] grid, int[] symbolCounts, boolean[][] matchedPositions) {
-        boolean hasWin = false;
-        for (int i = 0; i < SYMBOLS.length; i++) {
-            if (symbolCounts[i] >= MIN_MATCHES) {
-                hasWin = true;
+    private void dropCascade(AnimationScheduler.Timeline timeline, CascadeStep step) {
+        String[][] grid = step.getCascadedGrid().toEmojiGrid();
+        int[][] distances = dropDistances(step.getMatchedPositions());
+        int frames = turbo ? DROP_FRAMES / TURBO_DIVISOR : DROP_FRAMES;
+        for (int frame = 0; frame <= frames; frame++) {
+            // Ease in, like gravity
+            double remaining = 1.0 - (double) (frame * frame) / (frames * frames);
+            boolean first = frame == 0;
+            timeline.frame(cells -> {
                 for (int row = 0; row < ROWS; row++) {
                     for (int col = 0; col < COLS; col++) {
-                        if (grid[row][col].equals(SYMBOLS[i].getEmoji())) {
-                            matchedPositions[row][col] = true;
+                        if (first) {
+                            cells.setText(row, col, grid[row][col]);
                         }
+                        cells.setOffset(row, col, (int) Math.round(-100 * distances[row][col] * remaining));
                     }
                 }
-            }
+            });
+            timeline.pause(FRAME_MILLIS);
         }
-        return hasWin;
     }
 
-    /**
-     * Calculates the total win amount for matched symbols.
-     */
-    private double calculateWinAmount(String[][] grid, int[] symbolCounts, boolean[][] matchedPositions, double bet) {
-        double totalWin = 0.0;
-        for (int i = 0; i < SYMBOLS.length; i++) {
-            if (symbolCounts[i] >= MIN_MATCHES) {
-                double multiplier;
-                if (symbolCounts[i] <= 9) multiplier = SYMBOLS[i].getPayoutMultiplier(3);
-                else if (symbolCounts[i] <= 11) multiplier = SYMBOLS[i].getPayoutMultiplier(4);
-                else multiplier = SYMBOLS[i].getPayoutMultiplier(5);
-                totalWin += bet * multiplier;
+    // Rows each cell of the cascaded grid fell, from the cells removed beneath it
+    private static int[][] dropDistances(long matched) {
+        int[][] distances = new int[ROWS][COLS];
+        for (int col = 0; col < COLS; col++) {
+            long removed = SymbolGrid.columnBits(matched, col);
+            int gaps = Long.bitCount(removed);
+            int target = gaps;
+            for (int from = 0; from < ROWS; from++) {
+                if ((removed & (1L << from)) == 0) {
+                    distances[target][col] = target - from;
+                    target++;
+                }
+            }
+            for (int refill = 0; refill < gaps; refill++) {
+                distances[refill][col] = gaps;
             }
         }
-        return totalWin;
+        return distances;
     }
 
     /**
-     * Builds the win message showing individual symbol wins.
+     * Lays out every cascade step of an evaluated spin.
      */
-    private StringBuilder buildWinMessage(String[][] grid, int[] symbolCounts, boolean[][] matchedPositions, double bet) {
-        StringBuilder message = new StringBuilder();
-        message.append("Wins:\n");
-        for (int i = 0; i < SYMBOLS.length; i++) {
-            if (symbolCounts[i] >= MIN_MATCHES) {
-                double multiplier;
-                if (symbolCounts[i] <= 9) multiplier = SYMBOLS[i].getPayoutMultiplier(3);
-                else if (symbolCounts[i] <= 11) multiplier = SYMBOLS[i].getPayoutMultiplier(4);
-                else multiplier = SYMBOLS[i].getPayoutMultiplier(5);
-                message.append(String.format("%s x%d: $%.2f\n", SYMBOLS[i].getEmoji(), symbolCounts[i], bet * multiplier));
-            }
+    private void replayCascades(AnimationScheduler.Timeline timeline, SpinResult result, long afterBet) {
+        long shownBalance = afterBet;
+        for (int i = 0; i < result.getStepCount(); i++) {
+            CascadeStep step = result.getStep(i);
+            shownBalance += step.getWin();
+            long balance = shownBalance;
+            timeline.event(() -> {
+                playWinSounds(step.getSymbolCounts());
+                if (step.isMermaidTriggered()) {
+                    slotMachine.showMermaidWin(step.getMermaidMultiplier(), step.getWin());
+                } else {
+                    slotMachine.showStepWin(step.getWin());
+                }
+                slotMachine.updateMermaidChance(step.getMermaidChance());
+                slotMachine.showBalance(balance);
+            });
+
+            animateMatchedSymbols(timeline, step);
+            clearMatchedSymbols(timeline, step);
+            dropCascade(timeline, step);
+            timeline.pause(delay(UPDATE_DELAY));
         }
-        return message;
+
+        timeline.event(() -> {
+            if (result.getStepCount() > 0) {
+                slotMachine.showTotalWin(result.getTotalWin());
+            }
+            slotMachine.updateMermaidChance(result.getMermaidChance());
+        });
     }
 
     /**
      * Plays appropriate win sounds based on the symbols matched.
      */
-    private void playWinSounds(String[][] grid, int[] symbolCounts, boolean[][] matchedPositions) {
+    private void playWinSounds(int[] symbolCounts) {
         boolean hasJackpot = false;
         for (int i = 0; i < SYMBOLS.length; i++) {
-            if (symbolCounts[i] >= MIN_MATCHES && SYMBOLS[i].getEmoji().equals("💎")) {
+            if (symbolCounts[i] >= SpinEngine.MIN_MATCHES && SYMBOLS[i].getEmoji().equals("💎")) {
                 hasJackpot = true;
                 slotMachine.playSound("jackpot");
                 break;
@@ -270,107 +373,39 @@ public class GameLogic {
         }
     }
 
-    private void appendWinMessage(StringBuilder totalWinMessage, StringBuilder winMessage) {
-        if (totalWinMessage.length() > 0) {
-            totalWinMessage.append("\n\n");
-        }
-        totalWinMessage.append(winMessage);
-    }
-
-    private void updateGameState(double winAmount) {
-        gameState.updateBalance(winAmount);
-        slotMachine.updateBalanceDisplay();
-    }
-
-    /**
-     * Animates matched symbols and handles cascading of new symbols.
-     */
-    private void animateMatchesAndCascade(boolean[][] matchedPositions, String winMessage, 
-            double totalWin, String[][] originalGrid, double bet,
-            StringBuilder totalWinMessage, double totalWins, int nextConsecutiveWinCount) {
-        CompletableFuture.runAsync(() -> {
-            try {
-                animateMatchedSymbols(matchedPositions);
-                String[][] newGrid = removeMatchedSymbols(matchedPositions, originalGrid);
-                cascadeSymbols(newGrid);
-                updateGridDisplay(newGrid);
-                Thread.sleep(UPDATE_DELAY);
-                calculateWins(newGrid, bet, totalWinMessage, totalWins, nextConsecutiveWinCount);
-            } catch (InterruptedException ex) {
-                ex.printStackTrace();
-            }
-        });
-    }
-
     /**
      * Animates the scaling of matched symbols.
      */
-    private void animateMatchedSymbols(boolean[][] matchedPositions) throws InterruptedException {
+    private void animateMatchedSymbols(AnimationScheduler.Timeline timeline, CascadeStep step) {
         for (int scale = SCALE_MAX; scale >= SCALE_MIN; scale -= SCALE_STEP) {
             final int finalScale = scale;
-            SwingUtilities.invokeLater(() -> {
+            timeline.frame(cells -> {
                 for (int row = 0; row < ROWS; row++) {
                     for (int col = 0; col < COLS; col++) {
-                        if (matchedPositions[row][col]) {
-                            slotMachine.scaleSymbol(row, col, finalScale);
+                        if (step.isMatched(row, col)) {
+                            cells.setScale(row, col, finalScale);
                         }
                     }
                 }
             });
-            Thread.sleep(50);
+            timeline.pause(delay(SCALE_FRAME_DELAY));
         }
     }
 
     /**
-     * Removes matched symbols from the grid and returns a new grid.
+     * Clears matched symbols from the display before the cascade drops in.
      */
-    private String[][] removeMatchedSymbols(boolean[][] matchedPositions, String[][] originalGrid) throws InterruptedException {
-        String[][] newGrid = new String[ROWS][COLS];
-        for (int row = 0; row < ROWS; row++) {
-            System.arraycopy(originalGrid[row], 0, newGrid[row], 0, COLS);
-        }
-
-        for (int row = 0; row < ROWS; row++) {
-            for (int col = 0; col < COLS; col++) {
-                if (matchedPositions[row][col]) {
-                    newGrid[row][col] = "";
-                    final int r = row;
-                    final int c = col;
-                    SwingUtilities.invokeLater(() -> {
-                        slotMachine.updateSymbol(r, c, "");
-                        slotMachine.resetSymbolScale(r, c);
-                    });
-                }
-            }
-        }
-        Thread.sleep(CASCADE_DELAY);
-        return newGrid;
-    }
-
-    /**
-     * Cascades symbols down to fill empty spaces.
-     */
-    private void cascadeSymbols(String[][] grid) {
-        for (int col = 0; col < COLS; col++) {
-            int emptyRow = ROWS - 1;
-            for (int row = ROWS - 1; row >= 0; row--) {
-                if (!grid[row][col].isEmpty()) {
-                    if (row != emptyRow) {
-                        grid[emptyRow][col] = grid[row][col];
-                        grid[row][col] = "";
+    private void clearMatchedSymbols(AnimationScheduler.Timeline timeline, CascadeStep step) {
+        timeline.frame(cells -> {
+            for (int row = 0; row < ROWS; row++) {
+                for (int col = 0; col < COLS; col++) {
+                    if (step.isMatched(row, col)) {
+                        cells.setText(row, col, "");
+                        cells.resetScale(row, col);
                     }
-                    emptyRow--;
                 }
             }
-            // Fill empty spaces with new symbols
-            for (int row = emptyRow; row >= 0; row--) {
-                grid[row][col] = getRandomSymbol().getEmoji();
-            }
-        }
-    }
-
-    private void updateMermaidChance(double change) {
-        mermaidChance = Math.min(MAX_MERMAID_CHANCE, Math.max(MIN_MERMAID_CHANCE, mermaidChance + change));
-        slotMachine.updateMermaidChance(mermaidChance);
+        });
+        timeline.pause(delay(CASCADE_DELAY));
     }
 }
@@ -0,0 +1,182 @@
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.InvocationTargetException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.swing.SwingUtilities;
+
+/**
+ * Counters and histograms for the spin pipeline, shared by the game and the server.
+ * Everything records through LongAdders and lock-free histograms, so any thread may
+ * record without contention. Registered as MBeans under "SlotMachine2" on first use;
+ * run with -Dmetrics.dump=true to print the text dump at exit.
+ */
+public final class GameMetrics implements GameMetricsMBean {
+    private static final String DOMAIN = "SlotMachine2";
+    private static final long EDT_PROBE_MILLIS = 100;
+
+    private static final class Holder {
+        static final GameMetrics INSTANCE = new GameMetrics().register();
+    }
+
+    // Time SpinEngine spends evaluating a spin and all its cascades
+    final Histogram spinEvaluation = new Histogram("spinEvaluation", "us", 1e3);
+    // From the spin button to the end of the spin's animation
+    final Histogram spinToSettle = new Histogram("spinToSettle", "ms", 1e6);
+    final Histogram cascadeDepth = new Histogram("cascadeDepth", "steps", 1);
+    // How long a posted event waits before the EDT runs it
+    final Histogram edtQueueDelay = new Histogram("edtQueueDelay", "ms", 1e6);
+    // Time between animation ticks while the reels are moving
+    final Histogram frameTime = new Histogram("frameTime", "ms", 1e6);
+    private final List<Histogram> histograms = List.of(spinEvaluation, spinToSettle, cascadeDepth,
+            edtQueueDelay, frameTime);
+
+    private final LongAdder spins = new LongAdder();
+    private final LongAdder wins = new LongAdder();
+    private final LongAdder mermaidTriggers = new LongAdder();
+    private final LongAdder wagered = new LongAdder();
+    private final LongAdder paid = new LongAdder();
+    // Worst frame since ProfilerOverlay last asked
+    private final LongAccumulator worstFrame = new LongAccumulator(Math::max, 0L);
+    private final AtomicBoolean edtProbeStarted = new AtomicBoolean();
+
+    private GameMetrics() {
+    }
+
+    public static GameMetrics get() {
+        return Holder.INSTANCE;
+    }
+
+    private GameMetrics register() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            server.registerMBean(this, new ObjectName(DOMAIN + ":type=GameMetrics"));
+            for (Histogram histogram : histograms) {
+                server.registerMBean(histogram, new ObjectName(DOMAIN + ":type=Histogram,name=" + histogram.getName()));
+            }
+        } catch (JMException e) {
+            System.err.println("Game metrics not exported over JMX: " + e.getMessage());
+        }
+        if (Boolean.getBoolean("metrics.dump")) {
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> System.out.print(dump())));
+        }
+        return this;
+    }
+
+    /**
+     * Records one evaluated spin.
+     */
+    public void recordSpin(SpinResult result, long evaluationNanos) {
+        spinEvaluation.record(evaluationNanos);
+        cascadeDepth.record(result.getStepCount());
+        spins.increment();
+        wagered.add(result.getBet());
+        if (result.getTotalWin() > 0) {
+            wins.increment();
+            paid.add(result.getTotalWin());
+        }
+        for (int i = 0; i < result.getStepCount(); i++) {
+            if (result.getStep(i).isMermaidTriggered()) {
+                mermaidTriggers.increment();
+            }
+        }
+    }
+
+    public void recordSpinToSettle(long nanos) {
+        spinToSettle.record(nanos);
+    }
+
+    public void recordFrameTime(long nanos) {
+        frameTime.record(nanos);
+        worstFrame.accumulate(nanos);
+    }
+
+    /**
+     * Longest frame recorded since the previous call, and starts a new window.
+     */
+    public long takeWorstFrameNanos() {
+        return worstFrame.getThenReset();
+    }
+
+    /**
+     * Starts a daemon thread that posts one timestamped event to the EDT at a time
+     * and records how long it waited. Later calls do nothing.
+     */
+    public void startEdtProbe() {
+        if (!edtProbeStarted.compareAndSet(false, true)) {
+            return;
+        }
+        Thread probe = new Thread(() -> {
+            while (true) {
+                long posted = System.nanoTime();
+                try {
+                    SwingUtilities.invokeAndWait(() -> edtQueueDelay.record(System.nanoTime() - posted));
+                    TimeUnit.MILLISECONDS.sleep(EDT_PROBE_MILLIS);
+                } catch (InterruptedException e) {
+                    return;
+                } catch (InvocationTargetException e) {
+                    e.printStackTrace();
+                }
+            }
+        }, "edt-probe");
+        probe.setDaemon(true);
+        probe.start();
+    }
+
+    @Override
+    public long getSpins() {
+        return spins.sum();
+    }
+
+    @Override
+    public long getWins() {
+        return wins.sum();
+    }
+
+    @Override
+    public long getMermaidTriggers() {
+        return mermaidTriggers.sum();
+    }
+
+    @Override
+    public double getWagered() {
+        return Paytable.toCredits(wagered.sum());
+    }
+
+    @Override
+    public double getPaid() {
+        return Paytable.toCredits(paid.sum());
+    }
+
+    @Override
+    public double getRtp() {
+        long bet = wagered.sum();
+        return bet == 0 ? 0.0 : 100.0 * paid.sum() / bet;
+    }
+
+    @Override
+    public String dump() {
+        StringBuilder text = new StringBuilder();
+        text.append(String.format("Spins %d, wins %d, mermaid triggers %d%n", getSpins(), getWins(), getMermaidTriggers()));
+        text.append(String.format("Wagered %.2f, paid %.2f, RTP %.2f%%%n", getWagered(), getPaid(), getRtp()));
+        for (Histogram histogram : histograms) {
+            text.append(histogram).append(System.lineSeparator());
+        }
+        return text.toString();
+    }
+
+    @Override
+    public void reset() {
+        spins.reset();
+        wins.reset();
+        mermaidTriggers.reset();
+        wagered.reset();
+        paid.reset();
+        histograms.forEach(Histogram::reset);
+    }
+}
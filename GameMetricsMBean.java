@@ -0,0 +1,21 @@
+/**
+ * JMX view of {@link GameMetrics}. Money is in credits.
+ */
+public interface GameMetricsMBean {
+    long getSpins();
+
+    long getWins();
+
+    long getMermaidTriggers();
+
+    double getWagered();
+
+    double getPaid();
+
+    // Paid over wagered as a percentage
+    double getRtp();
+
+    String dump();
+
+    void reset();
+}
@@ -0,0 +1,277 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Headless multi-player server: many independent sessions in one JVM over a local HTTP API.
+ * Usage: java GameServer [port]
+ *
+ * POST   /sessions                                  create a session
+ * GET    /sessions/{id}                             balance, bet and mermaid chance
+ * POST   /sessions/{id}/spin?coin=1.0&multiplier=1  play one spin, answered with every cascade step
+ * DELETE /sessions/{id}                             end the session
+ *
+ * Every connection is handled on its own virtual thread. Spins are evaluated on a
+ * bounded pool of platform threads so CPU work never runs on the request threads.
+ * All sessions share one spin journal; the server does not start without it.
+ */
+public class GameServer {
+    private static final int DEFAULT_PORT = 8080;
+    private static final int MAX_SESSIONS = 100_000;
+    private static final int SPIN_QUEUE_CAPACITY = 4096;
+    private static final long SESSION_IDLE_MILLIS = TimeUnit.MINUTES.toMillis(30);
+
+    private final Map<String, GameSession> sessions = new ConcurrentHashMap<>();
+    // Sessions created or being created; a slot is reserved before the session exists
+    private final AtomicInteger sessionCount = new AtomicInteger();
+    private final ExecutorService spinPool;
+    private final SpinJournal journal;
+    private final HttpServer server;
+
+    public GameServer(int port) throws IOException {
+        int threads = Runtime.getRuntime().availableProcessors();
+        this.spinPool = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(SPIN_QUEUE_CAPACITY), new ThreadPoolExecutor.AbortPolicy());
+        this.journal = SpinJournal.create("server");
+        this.server = HttpServer.create(new InetSocketAddress("localhost", port), 0);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/sessions", this::handle);
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        GameServer gameServer = new GameServer(port);
+        gameServer.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(gameServer::stop));
+        System.out.printf("Game server listening on http://localhost:%d/sessions%n", port);
+    }
+
+    public void start() {
+        server.start();
+        Thread.ofPlatform().daemon().name("session-reaper").start(this::reapIdleSessions);
+    }
+
+    public void stop() {
+        server.stop(0);
+        spinPool.shutdown();
+        sessions.values().forEach(GameSession::close);
+        journal.close();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String[] path = exchange.getRequestURI().getPath().split("/");
+            String method = exchange.getRequestMethod();
+            // path[0] is empty, path[1] is "sessions"
+            if (path.length == 2 && method.equals("POST")) {
+                createSession(exchange);
+            } else if (path.length == 3 && method.equals("GET")) {
+                GameSession session = sessions.get(path[2]);
+                if (session == null) {
+                    send(exchange, 404, error("Unknown session"));
+                } else {
+                    send(exchange, 200, sessionJson(session));
+                }
+            } else if (path.length == 3 && method.equals("DELETE")) {
+                GameSession session = sessions.remove(path[2]);
+                if (session != null) {
+                    closeSession(session);
+                }
+                send(exchange, session == null ? 404 : 204, "");
+            } else if (path.length == 4 && path[3].equals("spin") && method.equals("POST")) {
+                spin(exchange, path[2]);
+            } else {
+                send(exchange, 404, error("Not found"));
+            }
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private void createSession(HttpExchange exchange) throws IOException {
+        if (sessionCount.incrementAndGet() > MAX_SESSIONS) {
+            sessionCount.decrementAndGet();
+            send(exchange, 503, error("Too many sessions"));
+            return;
+        }
+        GameSession session = new GameSession(UUID.randomUUID().toString(), journal);
+        sessions.put(session.getId(), session);
+        send(exchange, 201, sessionJson(session));
+    }
+
+    private void spin(HttpExchange exchange, String id) throws IOException {
+        GameSession session = sessions.get(id);
+        if (session == null) {
+            send(exchange, 404, error("Unknown session"));
+            return;
+        }
+        Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+        double coinValue;
+        int betMultiplier;
+        try {
+            coinValue = query.containsKey("coin")
+                    ? Double.parseDouble(query.get("coin")) : session.getGameState().getCoinValue();
+            betMultiplier = query.containsKey("multiplier")
+                    ? Integer.parseInt(query.get("multiplier")) : session.getGameState().getBetMultiplier();
+        } catch (NumberFormatException e) {
+            send(exchange, 400, error("Invalid bet"));
+            return;
+        }
+        // Rejected rather than clamped, so a client never plays a bet it did not ask for
+        if (!(coinValue >= GameState.MIN_COIN_VALUE && coinValue <= GameState.MAX_COIN_VALUE)
+                || betMultiplier < GameState.MIN_BET_MULTIPLIER || betMultiplier > GameState.MAX_BET_MULTIPLIER) {
+            send(exchange, 400, error("Bet out of range"));
+            return;
+        }
+
+        if (!session.tryAcquire()) {
+            send(exchange, 409, error("Spin already in progress"));
+            return;
+        }
+        try {
+            // The virtual thread parks here while a platform thread does the work
+            Future<String> pending = spinPool.submit(() -> {
+                SpinResult result = session.spin(coinValue, betMultiplier);
+                return result == null ? null : spinJson(session, result);
+            });
+            String body = pending.get();
+            if (body == null) {
+                send(exchange, 402, error("Insufficient balance"));
+            } else {
+                send(exchange, 200, body);
+            }
+        } catch (RejectedExecutionException e) {
+            send(exchange, 503, error("Server busy"));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            send(exchange, 503, error("Interrupted"));
+        } catch (ExecutionException e) {
+            e.getCause().printStackTrace();
+            send(exchange, 500, error("Spin failed"));
+        } finally {
+            session.release();
+        }
+    }
+
+    /**
+     * Drops sessions that have not been used for a while.
+     */
+    private void reapIdleSessions() {
+        while (true) {
+            try {
+                Thread.sleep(SESSION_IDLE_MILLIS / 10);
+            } catch (InterruptedException e) {
+                return;
+            }
+            long cutoff = System.currentTimeMillis() - SESSION_IDLE_MILLIS;
+            sessions.forEach((id, session) -> {
+                // Only the caller that removes a session closes it, so a DELETE cannot race this
+                if (session.getLastActive() < cutoff && sessions.remove(id, session)) {
+                    closeSession(session);
+                }
+            });
+        }
+    }
+
+    // Called once per session, after it has been removed from the map
+    private void closeSession(GameSession session) {
+        session.close();
+        sessionCount.decrementAndGet();
+    }
+
+    private static Map<String, String> parseQuery(String query) {
+        Map<String, String> params = new HashMap<>();
+        if (query == null) {
+            return params;
+        }
+        for (String pair : query.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0) {
+                params.put(pair.substring(0, eq), pair.substring(eq + 1));
+            }
+        }
+        return params;
+    }
+
+    private static void send(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length == 0 ? -1 : bytes.length);
+        if (bytes.length > 0) {
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        }
+    }
+
+    private static String error(String message) {
+        return "{\"error\":\"" + message + "\"}";
+    }
+
+    private static String sessionJson(GameSession session) {
+        GameState state = session.getGameState();
+        return String.format(Locale.ROOT, "{\"id\":\"%s\",\"balance\":%.2f,\"coinValue\":%.2f,\"betMultiplier\":%d,\"mermaidChance\":%.2f}",
+                session.getId(), state.getBalance(), state.getCoinValue(), state.getBetMultiplier(),
+                session.getMermaidChance());
+    }
+
+    /**
+     * Encodes a spin as JSON. Grids are rows of symbol indices into SpinEngine.SYMBOLS, -1 for empty.
+     */
+    private static String spinJson(GameSession session, SpinResult result) {
+        StringBuilder json = new StringBuilder(512);
+        json.append("{\"bet\":").append(Paytable.toCredits(result.getBet()))
+                .append(",\"totalWin\":").append(Paytable.toCredits(result.getTotalWin()))
+                .append(",\"balance\":").append(session.getGameState().getBalance())
+                .append(",\"mermaidChance\":").append(result.getMermaidChance())
+                .append(",\"initialGrid\":");
+        appendGrid(json, result.getInitialGrid());
+        json.append(",\"steps\":[");
+        for (int i = 0; i < result.getStepCount(); i++) {
+            CascadeStep step = result.getStep(i);
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"win\":").append(Paytable.toCredits(step.getWin()))
+                    .append(",\"matched\":").append(step.getMatchedPositions())
+                    .append(",\"mermaidMultiplier\":").append(step.getMermaidMultiplier())
+                    .append(",\"mermaidChance\":").append(step.getMermaidChance())
+                    .append(",\"cascadedGrid\":");
+            appendGrid(json, step.getCascadedGrid());
+            json.append('}');
+        }
+        return json.append("]}").toString();
+    }
+
+    private static void appendGrid(StringBuilder json, SymbolGrid grid) {
+        json.append('[');
+        for (int row = 0; row < SymbolGrid.ROWS; row++) {
+            json.append(row == 0 ? "[" : ",[");
+            for (int col = 0; col < SymbolGrid.COLS; col++) {
+                if (col > 0) {
+                    json.append(',');
+                }
+                json.append(grid.symbolAt(row, col));
+            }
+            json.append(']');
+        }
+        json.append(']');
+    }
+}
@@ -0,0 +1,87 @@
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * One player's game on the server: its own balance, bet settings, seeded engine and
+ * session in the server's spin journal.
+ * A session plays one spin at a time; the lock is a ReentrantLock rather than
+ * synchronized so a waiting virtual thread does not pin its carrier.
+ */
+public class GameSession {
+    private final String id;
+    private final GameState gameState = new GameState();
+    private final SpinEngine engine;
+    private final SpinJournal.Session journal;
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile long lastActive = System.currentTimeMillis();
+
+    public GameSession(String id, SpinJournal journal) {
+        this.id = id;
+        long seed = SpinEngine.newSeed();
+        this.engine = SpinEngine.seeded(seed);
+        engine.setListener(GameMetrics.get()::recordSpin);
+        this.journal = journal.openSession(id, seed, gameState.getBalanceMillis());
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public GameState getGameState() {
+        return gameState;
+    }
+
+    public double getMermaidChance() {
+        return engine.getMermaidChance();
+    }
+
+    long getLastActive() {
+        return lastActive;
+    }
+
+    /**
+     * Claims the session for one request. Returns false if another spin is in progress.
+     */
+    boolean tryAcquire() {
+        if (!lock.tryLock()) {
+            return false;
+        }
+        lastActive = System.currentTimeMillis();
+        return true;
+    }
+
+    void release() {
+        lock.unlock();
+    }
+
+    /**
+     * Applies the bet settings and plays a full spin including all cascades.
+     * Must be called while the session is acquired. Returns null if the balance is too low.
+     */
+    SpinResult spin(double coinValue, int betMultiplier) {
+        gameState.setCoinValue(coinValue);
+        gameState.setBetMultiplier(betMultiplier);
+        long bet = gameState.tryStartSpin();
+        if (bet < 0) {
+            return null;
+        }
+        try {
+            SpinResult result = engine.settle(gameState, bet);
+            journal.recordSpin(gameState.getCoinValueMillis(), gameState.getBetMultiplier(), result);
+            return result;
+        } finally {
+            gameState.setSpinning(false);
+        }
+    }
+
+    /**
+     * Ends the session in the journal once it is removed, waiting for a spin in progress.
+     */
+    void close() {
+        lock.lock();
+        try {
+            journal.close();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -1,59 +1,167 @@
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Balance, bet settings and spin state of one game, safe to share between threads
+ * without locks. The balance and the spinning flag live in one AtomicLong, so the
+ * bet check, the debit and the start of a spin happen as a single compare-and-set.
+ * Two clicks or two threads cannot both start a spin or overdraw the balance.
+ */
 public class GameState {
-    private double balance;
-    private double coinValue;
-    private int betMultiplier;
-    private double totalBet;
-    private boolean isSpinning;
+    static final long STARTING_BALANCE = Paytable.toMillis(1000.0);
+    static final double MIN_COIN_VALUE = 1.00;
+    static final double MAX_COIN_VALUE = 10.00;
+    static final int MIN_BET_MULTIPLIER = 1;
+    static final int MAX_BET_MULTIPLIER = 10;
+
+    private static final long SPINNING = 1L;
+    private static final int MULTIPLIER_BITS = 8;
+    private static final long MULTIPLIER_MASK = (1L << MULTIPLIER_BITS) - 1;
+
+    private final WalletJournal wallet; // Null when the balance is not persisted
+    private final String account;
+    // Balance in milli-credits (see Paytable) shifted left by one; the low bit is the spinning flag
+    private final AtomicLong balanceAndSpinning;
+    // Coin value in milli-credits shifted left past the bet multiplier
+    private final AtomicLong bet;
 
     public GameState() {
-        this.balance = 1000.0;
-        this.coinValue = 1.00;
-        this.betMultiplier = 1;
-        this.totalBet = coinValue * betMultiplier;
-        this.isSpinning = false;
+        this(null, null);
+    }
+
+    /**
+     * A game whose balance is loaded from and journaled to the player's wallet.
+     */
+    public GameState(WalletJournal wallet, String account) {
+        this.wallet = wallet;
+        this.account = account;
+        long balance = wallet == null ? STARTING_BALANCE : wallet.openWallet(account, STARTING_BALANCE);
+        this.balanceAndSpinning = new AtomicLong(balance << 1);
+        this.bet = new AtomicLong(packBet(Paytable.toMillis(1.00), 1));
+    }
+
+    private static long packBet(long coinValue, int betMultiplier) {
+        return coinValue << MULTIPLIER_BITS | betMultiplier;
+    }
+
+    private static long totalBet(long packedBet) {
+        return (packedBet >> MULTIPLIER_BITS) * (packedBet & MULTIPLIER_MASK);
     }
 
     public double getBalance() {
-        return balance;
+        return Paytable.toCredits(getBalanceMillis());
+    }
+
+    public long getBalanceMillis() {
+        return balanceAndSpinning.get() >> 1;
     }
 
-    public void updateBalance(double amount) {
-        this.balance += amount;
+    public void updateBalance(long amountMillis) {
+        updateBalance(amountMillis, WalletJournal.Kind.ADJUST);
+    }
+
+    // The shifted amount is even, so adding it leaves the spinning flag alone
+    public void updateBalance(long amountMillis, WalletJournal.Kind kind) {
+        balanceAndSpinning.addAndGet(amountMillis << 1);
+        journal(kind, amountMillis);
+    }
+
+    private void journal(WalletJournal.Kind kind, long amountMillis) {
+        if (wallet != null && amountMillis != 0) {
+            wallet.record(account, kind, amountMillis);
+        }
+    }
+
+    /**
+     * Marks a spin as started and debits the current total bet in one step.
+     * Returns the bet debited, or -1 if a spin is already running, the balance is too low
+     * or the wallet can no longer be saved.
+     */
+    public long tryStartSpin() {
+        return debit(true);
+    }
+
+    /**
+     * Debits the current total bet if the balance covers it, whatever the spin state.
+     * Used for the spins of an autoplay run, which holds the spinning flag throughout.
+     * Returns the bet debited, or -1 if the balance is too low or the wallet can no longer be saved.
+     */
+    public long tryDebitBet() {
+        return debit(false);
+    }
+
+    private long debit(boolean startSpin) {
+        if (isWalletFailed()) {
+            return -1L;
+        }
+        long totalBet = getTotalBetMillis();
+        long current;
+        long next;
+        do {
+            current = balanceAndSpinning.get();
+            boolean spinning = (current & SPINNING) != 0;
+            if ((startSpin && spinning) || (current >> 1) < totalBet) {
+                return -1L;
+            }
+            next = (current - (totalBet << 1)) | (startSpin ? SPINNING : 0L);
+        } while (!balanceAndSpinning.compareAndSet(current, next));
+        journal(WalletJournal.Kind.BET, -totalBet);
+        return totalBet;
+    }
+
+    // True once the wallet journal has stopped saving this game's balance
+    public boolean isWalletFailed() {
+        return wallet != null && wallet.isFailed();
     }
 
     public double getCoinValue() {
-        return coinValue;
+        return Paytable.toCredits(getCoinValueMillis());
+    }
+
+    public long getCoinValueMillis() {
+        return bet.get() >> MULTIPLIER_BITS;
     }
 
     public void setCoinValue(double value) {
         // Ensure coin value stays between 1.00 and 10.00
-        this.coinValue = Math.max(1.00, Math.min(10.00, value));
-        updateTotalBet();
+        long coinValue = Paytable.toMillis(Math.max(MIN_COIN_VALUE, Math.min(MAX_COIN_VALUE, value)));
+        bet.updateAndGet(packed -> packBet(coinValue, (int) (packed & MULTIPLIER_MASK)));
     }
 
     public int getBetMultiplier() {
-        return betMultiplier;
+        return (int) (bet.get() & MULTIPLIER_MASK);
     }
 
     public void setBetMultiplier(int betMultiplier) {
         // Ensure bet multiplier stays within valid range (1-10)
-        this.betMultiplier = Math.max(1, Math.min(10, betMultiplier));
-        updateTotalBet();
+        int multiplier = Math.max(MIN_BET_MULTIPLIER, Math.min(MAX_BET_MULTIPLIER, betMultiplier));
+        bet.updateAndGet(packed -> packBet(packed >> MULTIPLIER_BITS, multiplier));
     }
 
     public double getTotalBet() {
-        return totalBet;
+        return Paytable.toCredits(getTotalBetMillis());
     }
 
-    private void updateTotalBet() {
-        this.totalBet = coinValue * betMultiplier;
+    // Coin value and multiplier are read together, so this never mixes two settings
+    public long getTotalBetMillis() {
+        return totalBet(bet.get());
     }
 
     public boolean isSpinning() {
-        return isSpinning;
+        return (balanceAndSpinning.get() & SPINNING) != 0;
     }
 
-    public void setSpinning(boolean spinning) {
-        this.isSpinning = spinning;
+    /**
+     * Sets the spinning flag. Returns false if it already had that value, so
+     * setSpinning(true) doubles as a claim that only one caller wins.
+     */
+    public boolean setSpinning(boolean spinning) {
+        long current;
+        do {
+            current = balanceAndSpinning.get();
+            if (((current & SPINNING) != 0) == spinning) {
+                return false;
+            }
+        } while (!balanceAndSpinning.compareAndSet(current, current ^ SPINNING));
+        return true;
     }
 }
@@ -0,0 +1,137 @@
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free histogram of non-negative longs in log-linear buckets: every power of two
+ * is split into eight, so a percentile is off by at most 12.5%. Recording is one
+ * atomic increment plus two adders, safe from any thread; the memory is fixed.
+ */
+public class Histogram implements HistogramMBean {
+    private static final int SUB_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    private static final int BUCKETS = (64 - SUB_BITS) * SUB_BUCKETS;
+
+    private final String name;
+    private final String unit;
+    private final double unitSize;
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0L);
+
+    /**
+     * @param unit     unit the MBean and the dump report in
+     * @param unitSize recorded values per reported unit, e.g. 1e6 to report nanoseconds as ms
+     */
+    public Histogram(String name, String unit, double unitSize) {
+        this.name = name;
+        this.unit = unit;
+        this.unitSize = unitSize;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void record(long value) {
+        long v = Math.max(0L, value);
+        buckets.incrementAndGet(bucket(v));
+        count.increment();
+        sum.add(v);
+        max.accumulate(v);
+    }
+
+    private static int bucket(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int) (value >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    // Smallest value that falls in the bucket
+    private static long lowerBound(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int exponent = bucket / SUB_BUCKETS + SUB_BITS - 1;
+        return (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << (exponent - SUB_BITS);
+    }
+
+    /**
+     * Value below which the given fraction of recordings fall, in recorded units.
+     * Reported as the middle of its bucket; concurrent recordings may or may not be seen.
+     */
+    public long percentile(double fraction) {
+        long total = count.sum();
+        if (total == 0) {
+            return 0L;
+        }
+        long rank = Math.max(1L, (long) Math.ceil(fraction * total));
+        long seen = 0L;
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            seen += buckets.get(bucket);
+            if (seen >= rank) {
+                long low = lowerBound(bucket);
+                long high = bucket + 1 < BUCKETS ? lowerBound(bucket + 1) - 1 : Long.MAX_VALUE;
+                return Math.min(low + (high - low) / 2, max.get());
+            }
+        }
+        return max.get();
+    }
+
+    @Override
+    public String getUnit() {
+        return unit;
+    }
+
+    @Override
+    public long getCount() {
+        return count.sum();
+    }
+
+    @Override
+    public double getMean() {
+        long n = count.sum();
+        return n == 0 ? 0.0 : sum.sum() / (double) n / unitSize;
+    }
+
+    @Override
+    public double getP50() {
+        return percentile(0.50) / unitSize;
+    }
+
+    @Override
+    public double getP90() {
+        return percentile(0.90) / unitSize;
+    }
+
+    @Override
+    public double getP99() {
+        return percentile(0.99) / unitSize;
+    }
+
+    @Override
+    public double getMax() {
+        return max.get() / unitSize;
+    }
+
+    // Not atomic against concurrent recordings, which may land on either side
+    @Override
+    public void reset() {
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            buckets.set(bucket, 0L);
+        }
+        count.reset();
+        sum.reset();
+        max.reset();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%-16s count %9d  mean %9.3f  p50 %9.3f  p90 %9.3f  p99 %9.3f  max %9.3f %s",
+                name, getCount(), getMean(), getP50(), getP90(), getP99(), getMax(), unit);
+    }
+}
@@ -0,0 +1,20 @@
+/**
+ * JMX view of a {@link Histogram}. Values are in the histogram's unit.
+ */
+public interface HistogramMBean {
+    String getUnit();
+
+    long getCount();
+
+    double getMean();
+
+    double getP50();
+
+    double getP90();
+
+    double getP99();
+
+    double getMax();
+
+    void reset();
+}
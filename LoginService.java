@@ -0,0 +1,293 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+
+/**
+ * Login and registration against the AccountStore. Passwords are stored as salted
+ * PBKDF2-HMAC-SHA256 hashes. The hashing is deliberately slow, so every request runs
+ * on a bounded pool of worker threads and never on the caller's thread. When the
+ * queue is full, requests are turned away instead of piling up.
+ * <p>
+ * Repeated failures for a name lock it out for a growing delay. A locked name is
+ * refused before any hashing, so guessing cannot tie up the workers either.
+ * Accounts still holding a weaker hash are rehashed on their next login, and the old
+ * plain-text accounts file is hashed into the store by importLegacy.
+ * <p>
+ * The cost is set with -Dlogin.iterations and the pool with -Dlogin.threads and
+ * -Dlogin.queue; LoginServiceBenchmark measures throughput for a given setting.
+ */
+public final class LoginService implements AutoCloseable {
+    static final int DEFAULT_ITERATIONS = Integer.getInteger("login.iterations", 210_000);
+    private static final int DEFAULT_THREADS = Integer.getInteger("login.threads",
+            Runtime.getRuntime().availableProcessors());
+    private static final int DEFAULT_QUEUE = Integer.getInteger("login.queue", 64);
+
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA256";
+    private static final String PREFIX = "pbkdf2-sha256";
+    private static final int SALT_BYTES = 16;
+    private static final int HASH_BITS = 256;
+
+    // Failures allowed before lockouts start, and how long they grow
+    private static final int FREE_ATTEMPTS = 3;
+    private static final long BASE_LOCKOUT_MILLIS = 1000;
+    private static final long MAX_LOCKOUT_MILLIS = 5 * 60 * 1000;
+    private static final long FORGET_AFTER_MILLIS = 15 * 60 * 1000;
+
+    public enum Status {
+        OK, INVALID, EXISTS, THROTTLED, BUSY, ERROR
+    }
+
+    public record Result(Status status, String message) {
+        public boolean isOk() {
+            return status == Status.OK;
+        }
+    }
+
+    private static final class Attempts {
+        int failures;
+        long lockedUntil;
+        long lastFailure;
+    }
+
+    private final AccountStore accounts;
+    private final int iterations;
+    private final ThreadPoolExecutor workers;
+    private final Map<String, Attempts> attempts = new ConcurrentHashMap<>();
+    private final SecureRandom random = new SecureRandom();
+    // Hashed for unknown names so they take as long as wrong passwords
+    private volatile String dummyHash;
+
+    public LoginService(AccountStore accounts) {
+        this(accounts, DEFAULT_ITERATIONS, DEFAULT_THREADS, DEFAULT_QUEUE);
+    }
+
+    public LoginService(AccountStore accounts, int iterations, int threads, int queueCapacity) {
+        this.accounts = accounts;
+        this.iterations = iterations;
+        this.workers = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "login-worker");
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+        // Computed on a worker, never on the caller's thread, which may be the EDT
+        workers.execute(this::dummyHash);
+    }
+
+    private String dummyHash() {
+        String hash = dummyHash;
+        if (hash == null) {
+            synchronized (this) {
+                hash = dummyHash;
+                if (hash == null) {
+                    hash = hash(new char[]{'x'}, iterations);
+                    dummyHash = hash;
+                }
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * Imports the legacy plain-text accounts file, hashing every password on the workers,
+     * and deletes the file once the hashes are synced. It blocks until the import is done,
+     * so call it before taking logins and never on the EDT. Returns the number imported.
+     */
+    public int importLegacy(Path file) throws IOException {
+        // Keeps at most a queue's worth of hashes waiting, so the bounded queue never rejects
+        Semaphore queued = new Semaphore(Math.max(1, workers.getQueue().remainingCapacity()));
+        return accounts.importLegacy(file, password -> {
+            queued.acquireUninterruptibly();
+            try {
+                return CompletableFuture.supplyAsync(() -> {
+                    try {
+                        return hash(password, iterations);
+                    } finally {
+                        Arrays.fill(password, '\0');
+                        queued.release();
+                    }
+                }, workers);
+            } catch (RejectedExecutionException e) {
+                // Logins filled the queue meanwhile; hash on this thread instead
+                queued.release();
+                try {
+                    return CompletableFuture.completedFuture(hash(password, iterations));
+                } finally {
+                    Arrays.fill(password, '\0');
+                }
+            }
+        });
+    }
+
+    /**
+     * Checks the password on a worker. The password array is cleared once it has been used.
+     */
+    public CompletableFuture<Result> login(String name, char[] password) {
+        return submit(password, () -> checkLogin(name, password));
+    }
+
+    /**
+     * Creates the account on a worker unless the name is taken. The password array is cleared.
+     */
+    public CompletableFuture<Result> register(String name, char[] password) {
+        return submit(password, () -> createAccount(name, password));
+    }
+
+    private CompletableFuture<Result> submit(char[] password, Supplier<Result> task) {
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                try {
+                    return task.get();
+                } finally {
+                    Arrays.fill(password, '\0');
+                }
+            }, workers);
+        } catch (RejectedExecutionException e) {
+            Arrays.fill(password, '\0');
+            return CompletableFuture.completedFuture(new Result(Status.BUSY, "Server busy, please try again."));
+        }
+    }
+
+    private Result checkLogin(String name, char[] password) {
+        long now = System.currentTimeMillis();
+        Attempts current = attempts.get(name);
+        if (current != null) {
+            synchronized (current) {
+                if (current.lockedUntil > now) {
+                    long seconds = (current.lockedUntil - now + 999) / 1000;
+                    return new Result(Status.THROTTLED, "Too many failed attempts. Try again in " + seconds + " s.");
+                }
+            }
+        }
+
+        String stored;
+        try {
+            stored = accounts.get(name);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return new Result(Status.ERROR, "Could not read the account.");
+        }
+        // Unknown names cost one full hash, like a known account
+        if (stored == null) {
+            verify(password, dummyHash());
+        }
+        boolean valid = stored != null && verify(password, stored);
+        if (!valid) {
+            recordFailure(name, now);
+            return new Result(Status.INVALID, "Invalid credentials.");
+        }
+        attempts.remove(name);
+        if (needsRehash(stored)) {
+            try {
+                accounts.put(name, hash(password, iterations));
+            } catch (IOException e) {
+                // The old hash still works; try again next time
+                e.printStackTrace();
+            }
+        }
+        return new Result(Status.OK, null);
+    }
+
+    private Result createAccount(String name, char[] password) {
+        if (name.isEmpty() || password.length == 0) {
+            return new Result(Status.INVALID, "Username and password cannot be empty.");
+        }
+        try {
+            if (accounts.contains(name)) {
+                return new Result(Status.EXISTS, "Username already exists.");
+            }
+            // Hashing happens outside the store's lock, so the name is checked again on insert
+            if (!accounts.putIfAbsent(name, hash(password, iterations))) {
+                return new Result(Status.EXISTS, "Username already exists.");
+            }
+            return new Result(Status.OK, "Registration successful. You can now log in.");
+        } catch (IllegalArgumentException e) {
+            return new Result(Status.INVALID, "Username is too long.");
+        } catch (IOException e) {
+            e.printStackTrace();
+            return new Result(Status.ERROR, "Could not save the account.");
+        }
+    }
+
+    private void recordFailure(String name, long now) {
+        Attempts current = attempts.computeIfAbsent(name, _ -> new Attempts());
+        synchronized (current) {
+            if (now - current.lastFailure > FORGET_AFTER_MILLIS) {
+                current.failures = 0;
+            }
+            current.failures++;
+            current.lastFailure = now;
+            if (current.failures > FREE_ATTEMPTS) {
+                int doublings = Math.min(20, current.failures - FREE_ATTEMPTS - 1);
+                current.lockedUntil = now + Math.min(MAX_LOCKOUT_MILLIS, BASE_LOCKOUT_MILLIS << doublings);
+            }
+        }
+        // Keeps the map from growing without bound under a spray of made-up names
+        if (attempts.size() > 10_000) {
+            attempts.values().removeIf(a -> now - a.lastFailure > FORGET_AFTER_MILLIS);
+        }
+    }
+
+    // Encoded as prefix$iterations$salt$hash with Base64 salt and hash
+    String hash(char[] password, int cost) {
+        byte[] salt = new byte[SALT_BYTES];
+        random.nextBytes(salt);
+        Base64.Encoder base64 = Base64.getEncoder().withoutPadding();
+        return PREFIX + "$" + cost + "$" + base64.encodeToString(salt) + "$"
+                + base64.encodeToString(derive(password, salt, cost));
+    }
+
+    static boolean verify(char[] password, String stored) {
+        String[] parts = stored.split("\\$");
+        if (parts.length != 4 || !parts[0].equals(PREFIX)) {
+            return false;
+        }
+        try {
+            Base64.Decoder base64 = Base64.getDecoder();
+            byte[] expected = base64.decode(parts[3]);
+            return MessageDigest.isEqual(expected, derive(password, base64.decode(parts[2]), Integer.parseInt(parts[1])));
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private boolean needsRehash(String stored) {
+        return !stored.startsWith(PREFIX + "$" + iterations + "$");
+    }
+
+    private static byte[] derive(char[] password, byte[] salt, int cost) {
+        PBEKeySpec spec = new PBEKeySpec(password, salt, cost, HASH_BITS);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(ALGORITHM + " unavailable", e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+
+    // Requests still waiting for a worker, for monitoring and tuning
+    public int getQueueDepth() {
+        return workers.getQueue().size();
+    }
+
+    @Override
+    public void close() {
+        workers.shutdown();
+    }
+}
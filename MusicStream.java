@@ -0,0 +1,170 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Streams the PCM data of a WAV file through a small ring buffer instead of decoding
+ * it into memory. A feeder thread reads ahead with positional FileChannel reads and
+ * the mixing thread drains the ring. Looping wraps straight from the end of the data
+ * chunk to its start, so there is no gap. Memory use is the ring plus one read chunk.
+ */
+public class MusicStream {
+    // Matches the mix format of SlotSoundManager: 16-bit little-endian stereo, 44.1 kHz
+    static final int CHANNELS = 2;
+    static final int SAMPLE_RATE = 44100;
+    private static final int BYTES_PER_FRAME = 2 * CHANNELS;
+
+    // About 0.75 s of audio in flight; a power of two so indices wrap with a mask
+    private static final int RING_SAMPLES = 1 << 16;
+    private static final int RING_MASK = RING_SAMPLES - 1;
+    private static final int CHUNK_BYTES = 16 * 1024;
+    private static final long IDLE_PARK_NANOS = 5_000_000L;
+
+    /**
+     * Where the PCM data of a WAV file lives. Parsed once per file, shared by all streams.
+     */
+    public record Source(Path path, long dataStart, long dataLength) {
+        /**
+         * Reads the RIFF chunk headers. Returns null if the file is not 16-bit stereo PCM
+         * at the mix rate, in which case it has to be decoded instead.
+         */
+        public static Source open(String filePath) throws IOException {
+            Path path = Path.of(filePath);
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                ByteBuffer header = ByteBuffer.allocate(12).order(ByteOrder.LITTLE_ENDIAN);
+                readFully(channel, header, 0);
+                if (header.getInt(0) != 0x46464952 || header.getInt(8) != 0x45564157) { // "RIFF", "WAVE"
+                    return null;
+                }
+                boolean formatOk = false;
+                long position = 12;
+                ByteBuffer chunk = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
+                while (position + 8 <= channel.size()) {
+                    chunk.clear();
+                    readFully(channel, chunk, position);
+                    int id = chunk.getInt(0);
+                    long size = Integer.toUnsignedLong(chunk.getInt(4));
+                    long body = position + 8;
+                    if (id == 0x20746D66) { // "fmt "
+                        ByteBuffer format = ByteBuffer.allocate(16).order(ByteOrder.LITTLE_ENDIAN);
+                        readFully(channel, format, body);
+                        formatOk = format.getShort(0) == 1 && format.getShort(2) == CHANNELS
+                                && format.getInt(4) == SAMPLE_RATE && format.getShort(14) == 16;
+                    } else if (id == 0x61746164) { // "data"
+                        long length = Math.min(size, channel.size() - body);
+                        length -= length % BYTES_PER_FRAME;
+                        return formatOk && length > 0 ? new Source(path, body, length) : null;
+                    }
+                    // Chunks are padded to an even size
+                    position = body + size + (size & 1);
+                }
+                return null;
+            }
+        }
+
+        private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, position + buffer.position()) < 0) {
+                    throw new IOException("Unexpected end of WAV file");
+                }
+            }
+        }
+    }
+
+    private final Source source;
+    private final boolean loop;
+    private final FileChannel channel;
+    private final short[] ring = new short[RING_SAMPLES];
+    private final Thread feeder;
+    // Single producer (feeder) and single consumer (mixer)
+    private volatile long written;
+    private volatile long read;
+    private volatile boolean finished;
+    private volatile boolean closed;
+
+    public MusicStream(Source source, boolean loop) throws IOException {
+        this.source = source;
+        this.loop = loop;
+        this.channel = FileChannel.open(source.path(), StandardOpenOption.READ);
+        this.feeder = new Thread(this::feed, "music-stream");
+        feeder.setDaemon(true);
+        feeder.start();
+    }
+
+    private void feed() {
+        ByteBuffer chunk = ByteBuffer.allocateDirect(CHUNK_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        long offset = 0;
+        try {
+            while (!closed) {
+                int free = RING_SAMPLES - (int) (written - read);
+                if (free < CHUNK_BYTES / 2) {
+                    LockSupport.parkNanos(IDLE_PARK_NANOS);
+                    continue;
+                }
+                if (offset == source.dataLength()) {
+                    if (!loop) {
+                        finished = true;
+                        return;
+                    }
+                    offset = 0;
+                }
+                chunk.clear();
+                chunk.limit((int) Math.min(CHUNK_BYTES, source.dataLength() - offset));
+                int bytes = channel.read(chunk, source.dataStart() + offset);
+                if (bytes <= 0) {
+                    // File shrank under us; treat as the end of the data
+                    offset = source.dataLength();
+                    continue;
+                }
+                bytes -= bytes % 2;
+                offset += bytes;
+                long w = written;
+                for (int i = 0; i < bytes; i += 2) {
+                    ring[(int) (w++ & RING_MASK)] = chunk.getShort(i);
+                }
+                written = w;
+            }
+        } catch (IOException e) {
+            System.err.println("Music stream failed: " + e.getMessage());
+            finished = true;
+        } finally {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Adds up to frames stereo frames into mix, scaled by a gain ramping from fromGain
+     * by gainStep per frame. Missing data (a late feeder) is mixed as silence.
+     */
+    void mixInto(int[] mix, int frames, float fromGain, float gainStep) {
+        long r = read;
+        long available = written - r;
+        float gain = fromGain;
+        for (int frame = 0; frame < frames && available >= CHANNELS; frame++) {
+            mix[frame * CHANNELS] += (int) (ring[(int) (r++ & RING_MASK)] * gain);
+            mix[frame * CHANNELS + 1] += (int) (ring[(int) (r++ & RING_MASK)] * gain);
+            available -= CHANNELS;
+            gain += gainStep;
+        }
+        read = r;
+    }
+
+    // True once a one-shot stream has played all of its data
+    boolean isDone() {
+        return finished && written == read;
+    }
+
+    // The feeder notices within one park interval and closes the file itself
+    void close() {
+        closed = true;
+        LockSupport.unpark(feeder);
+    }
+}
@@ -0,0 +1,61 @@
+/**
+ * The symbol table compiled into a flat fixed-point lookup.
+ * All amounts are in milli-credits (1 credit = 1000) so balances stay exact.
+ */
+public class Paytable {
+    static final long MILLIS_PER_CREDIT = 1000L;
+    static final int MAX_COUNT = SymbolGrid.CELLS;
+    static final int TIERS = 3;
+
+    // Highest count (inclusive) paying each tier; anything above the last bound is tier 3
+    private static final int[] TIER_UPPER_BOUNDS = {9, 11};
+
+    private final int stride = MAX_COUNT + 1;
+    private final long[] payoutPerCredit; // [symbol * stride + count]
+    private final int[] tierByCount;      // -1 below MIN_MATCHES
+
+    public Paytable(Symbol[] symbols, int minMatches) {
+        tierByCount = new int[stride];
+        for (int count = 0; count <= MAX_COUNT; count++) {
+            tierByCount[count] = count < minMatches ? -1 : tierFor(count);
+        }
+
+        payoutPerCredit = new long[symbols.length * stride];
+        for (int symbol = 0; symbol < symbols.length; symbol++) {
+            for (int count = minMatches; count <= MAX_COUNT; count++) {
+                double multiplier = symbols[symbol].getPayoutMultiplier(tierByCount[count] + 3);
+                payoutPerCredit[symbol * stride + count] = Math.round(multiplier * MILLIS_PER_CREDIT);
+            }
+        }
+    }
+
+    private static int tierFor(int count) {
+        for (int tier = 0; tier < TIER_UPPER_BOUNDS.length; tier++) {
+            if (count <= TIER_UPPER_BOUNDS[tier]) {
+                return tier;
+            }
+        }
+        return TIER_UPPER_BOUNDS.length;
+    }
+
+    /**
+     * Returns the payout in milli-credits for the given symbol count and bet.
+     * Counts below the minimum pay nothing.
+     */
+    public long payout(int symbol, int count, long betMillis) {
+        return betMillis * payoutPerCredit[symbol * stride + count] / MILLIS_PER_CREDIT;
+    }
+
+    // Paytable tier (0..2) for a count, or -1 if it does not win
+    public int tier(int count) {
+        return tierByCount[count];
+    }
+
+    public static long toMillis(double credits) {
+        return Math.round(credits * MILLIS_PER_CREDIT);
+    }
+
+    public static double toCredits(long millis) {
+        return (double) millis / MILLIS_PER_CREDIT;
+    }
+}
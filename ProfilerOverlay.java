@@ -0,0 +1,105 @@
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics;
+import java.awt.event.ActionEvent;
+import java.awt.event.KeyEvent;
+import java.util.Arrays;
+import javax.swing.AbstractAction;
+import javax.swing.JComponent;
+import javax.swing.JFrame;
+import javax.swing.JLayeredPane;
+import javax.swing.KeyStroke;
+import javax.swing.Timer;
+
+/**
+ * Frame-time readout drawn over the game window, toggled with F3. Shows the animation
+ * frame rate and worst frame of the last half second from GameMetrics, and the EDT
+ * queue depth and stall count from EdtWatchdog. Hidden, it costs nothing.
+ */
+public class ProfilerOverlay extends JComponent {
+    private static final int WIDTH = 260;
+    private static final int HEIGHT = 84;
+    private static final int REFRESH_MILLIS = 500;
+    private static final Font FONT = new Font(Font.MONOSPACED, Font.BOLD, 12);
+    private static final Color BACKGROUND = new Color(0, 0, 0, 170);
+    private static final Color HITCH = new Color(255, 90, 90);
+    // Frames slower than this show in red; a 60 Hz frame is 16.7 ms
+    private static final double HITCH_MILLIS = 33.0;
+
+    private final Timer refresh = new Timer(REFRESH_MILLIS, _ -> update());
+    private final String[] lines = new String[4];
+    private long lastFrames;
+    private long lastNanos;
+    private double worstMillis;
+
+    private ProfilerOverlay() {
+        setBounds(8, 8, WIDTH, HEIGHT);
+        setVisible(false);
+        setFocusable(false);
+        Arrays.fill(lines, "");
+    }
+
+    /**
+     * Adds a hidden overlay to the frame and binds F3 to show and hide it.
+     */
+    public static ProfilerOverlay attach(JFrame frame) {
+        ProfilerOverlay overlay = new ProfilerOverlay();
+        frame.getLayeredPane().add(overlay, JLayeredPane.PALETTE_LAYER);
+        JComponent root = frame.getRootPane();
+        root.getInputMap(JComponent.WHEN_IN_FOCUSED_WINDOW).put(KeyStroke.getKeyStroke(KeyEvent.VK_F3, 0), "profiler");
+        root.getActionMap().put("profiler", new AbstractAction() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                overlay.toggle();
+            }
+        });
+        return overlay;
+    }
+
+    public void toggle() {
+        if (isVisible()) {
+            refresh.stop();
+            setVisible(false);
+        } else {
+            // Start a fresh window so the first reading covers only time on screen
+            GameMetrics metrics = GameMetrics.get();
+            metrics.takeWorstFrameNanos();
+            lastFrames = metrics.frameTime.getCount();
+            lastNanos = System.nanoTime();
+            update();
+            setVisible(true);
+            refresh.start();
+        }
+    }
+
+    private void update() {
+        GameMetrics metrics = GameMetrics.get();
+        long now = System.nanoTime();
+        long frames = metrics.frameTime.getCount();
+        double seconds = Math.max(1e-9, (now - lastNanos) / 1e9);
+        double fps = (frames - lastFrames) / seconds;
+        lastFrames = frames;
+        lastNanos = now;
+        worstMillis = metrics.takeWorstFrameNanos() / 1e6;
+
+        EdtWatchdog watchdog = EdtWatchdog.get();
+        lines[0] = fps == 0 ? "FPS    idle" : String.format("FPS    %.1f", fps);
+        lines[1] = String.format("Worst  %.1f ms", worstMillis);
+        lines[2] = watchdog == null ? "Queue  -" : String.format("Queue  %d  (p99 wait %.1f ms)",
+                watchdog.getQueueDepth(), metrics.edtQueueDelay.getP99());
+        lines[3] = watchdog == null ? "Stalls -" : "Stalls " + watchdog.getStallCount();
+        repaint();
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        g.setColor(BACKGROUND);
+        g.fillRect(0, 0, getWidth(), getHeight());
+        g.setFont(FONT);
+        int lineHeight = g.getFontMetrics().getHeight();
+        for (int i = 0; i < lines.length; i++) {
+            g.setColor(i == 1 && worstMillis > HITCH_MILLIS ? HITCH : Color.WHITE);
+            g.drawString(lines[i], 8, 6 + lineHeight * (i + 1) - 2);
+        }
+    }
+}
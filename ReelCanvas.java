@@ -0,0 +1,132 @@
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.Shape;
+import java.awt.image.BufferedImage;
+import javax.swing.JComponent;
+
+/**
+ * The 5x6 reel grid drawn by one component in a single double-buffered paint pass.
+ * Each cell has a symbol, a scale in percent and a vertical offset in percent of a
+ * cell height. Offsets let symbols scroll through a reel column and drop into place
+ * during cascades; symbols are clipped to their column.
+ */
+public class ReelCanvas extends JComponent {
+    private static final int ROWS = SymbolGrid.ROWS;
+    private static final int COLS = SymbolGrid.COLS;
+    private static final int GAP = 10;
+    private static final int BORDER = 2;
+
+    private final SymbolAtlas atlas;
+    private final String[][] symbols = new String[ROWS][COLS];
+    private final int[][] scales = new int[ROWS][COLS];
+    private final int[][] offsets = new int[ROWS][COLS];
+    private final boolean[][] highlighted = new boolean[ROWS][COLS];
+
+    public ReelCanvas(SymbolAtlas atlas) {
+        this.atlas = atlas;
+        for (int row = 0; row < ROWS; row++) {
+            for (int col = 0; col < COLS; col++) {
+                symbols[row][col] = SymbolAtlas.PLACEHOLDER;
+                scales[row][col] = SymbolAtlas.NORMAL_SCALE;
+            }
+        }
+        setOpaque(true);
+        setDoubleBuffered(true);
+    }
+
+    public void setSymbol(int row, int col, String symbol) {
+        symbols[row][col] = symbol;
+        repaintColumn(col);
+    }
+
+    public void setScale(int row, int col, int scale) {
+        scales[row][col] = scale;
+        repaintColumn(col);
+    }
+
+    // Vertical offset in percent of a cell height; negative moves the symbol up
+    public void setOffset(int row, int col, int offset) {
+        offsets[row][col] = offset;
+        repaintColumn(col);
+    }
+
+    public void setHighlighted(int row, int col, boolean highlight) {
+        highlighted[row][col] = highlight;
+        repaintColumn(col);
+    }
+
+    // Repaint requests are coalesced by Swing into one paint pass per frame
+    private void repaintColumn(int col) {
+        repaint((int) cellX(col) - 1, 0, (int) Math.ceil(cellWidth()) + 2, getHeight());
+    }
+
+    private double cellWidth() {
+        return (getWidth() - 2.0 * BORDER - (COLS - 1) * GAP) / COLS;
+    }
+
+    private double cellHeight() {
+        return (getHeight() - 2.0 * BORDER - (ROWS - 1) * GAP) / ROWS;
+    }
+
+    private double cellX(int col) {
+        return BORDER + col * (cellWidth() + GAP);
+    }
+
+    private double cellY(int row) {
+        return BORDER + row * (cellHeight() + GAP);
+    }
+
+    @Override
+    public Dimension getPreferredSize() {
+        return new Dimension(670, 300);
+    }
+
+    @Override
+    protected void paintComponent(Graphics graphics) {
+        Graphics2D g = (Graphics2D) graphics.create();
+        try {
+            double cellWidth = cellWidth();
+            double cellHeight = cellHeight();
+
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, getWidth(), getHeight());
+            g.setColor(Color.BLACK);
+            g.setStroke(new BasicStroke(BORDER));
+            g.drawRect(BORDER / 2, BORDER / 2, getWidth() - BORDER, getHeight() - BORDER);
+            g.setStroke(new BasicStroke(1));
+
+            Shape clip = g.getClip();
+            for (int col = 0; col < COLS; col++) {
+                int x = (int) cellX(col);
+                int width = (int) cellWidth;
+                if (clip != null && !clip.intersects(x - 1, 0, width + 2, getHeight())) {
+                    continue;
+                }
+                for (int row = 0; row < ROWS; row++) {
+                    g.setColor(highlighted[row][col] ? Color.RED : Color.LIGHT_GRAY);
+                    g.drawRect(x, (int) cellY(row), width - 1, (int) cellHeight - 1);
+                }
+
+                // Symbols may sit between cells while scrolling or dropping, so clip to the column
+                Graphics2D column = (Graphics2D) g.create();
+                column.clipRect(x, BORDER, width, getHeight() - 2 * BORDER);
+                for (int row = 0; row < ROWS; row++) {
+                    BufferedImage sprite = atlas.getImage(symbols[row][col], scales[row][col]);
+                    if (sprite == null) {
+                        continue;
+                    }
+                    double centerX = x + cellWidth / 2;
+                    double centerY = cellY(row) + cellHeight / 2 + offsets[row][col] * (cellHeight + GAP) / 100.0;
+                    column.drawImage(sprite, (int) (centerX - sprite.getWidth() / 2.0),
+                            (int) (centerY - sprite.getHeight() / 2.0), null);
+                }
+                column.dispose();
+            }
+        } finally {
+            g.dispose();
+        }
+    }
+}
@@ -0,0 +1,495 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Deterministic RTP estimate for the paytable; no random numbers involved.
+ * Usage: java RtpEstimator
+ *
+ * The initial 30-cell grid is enumerated as a multinomial over the normalized
+ * symbol probabilities, and the first cascade is solved from each grid's survivor
+ * counts with memoized binomial and trinomial tables, so the figures for the first
+ * two winning steps carry no sampling error. Later steps are not enumerated: the
+ * first cascade already leaves about 10^7 survivor vectors, and carrying them one
+ * more step does not fit in this tool's memory or time. Past the second step the
+ * return is extrapolated as a geometric series in the ratio the second step had to
+ * the first, and the mermaid chance ramp is solved as a Markov chain over its 19
+ * levels on top of that series. Later cascades continue less often than the second,
+ * so the estimate runs high (about 210% against RtpSimulator's 182% for the shipped
+ * paytable). Use it to compare paytables quickly and the simulator for the RTP itself.
+ */
+public class RtpEstimator {
+    private static final int K = SpinEngine.SYMBOLS.length;
+    private static final int CELLS = SymbolGrid.CELLS;
+    private static final int MIN_MATCHES = SpinEngine.MIN_MATCHES;
+    private static final int MAX_SURVIVORS = MIN_MATCHES - 1;
+
+    // Mermaid chance levels: MIN_MERMAID_CHANCE + 0.05 * level
+    private static final double CHANCE_STEP = 0.05;
+    private static final int CHANCE_LEVELS = (int) Math.round(
+            (SpinEngine.MAX_MERMAID_CHANCE - SpinEngine.MIN_MERMAID_CHANCE) / CHANCE_STEP) + 1;
+    private static final int LOSS_STEP = 1;         // +0.05 on loss
+    private static final int CONSECUTIVE_STEP = 2;  // +0.1 on consecutive win without mermaid
+    // Cascade steps are followed until the chance of reaching the next is below this
+    private static final double TAIL_CUTOFF = 1e-15;
+
+    // Moments of the uniform mermaid multiplier
+    private static final double M_LOW = SpinEngine.MERMAID_MULTIPLIER_MIN;
+    private static final double M_HIGH = M_LOW + SpinEngine.MERMAID_MULTIPLIER_RANGE;
+    private static final double M_MEAN = (M_LOW + M_HIGH) / 2;
+    private static final double M_SECOND = (M_HIGH * M_HIGH * M_HIGH - M_LOW * M_LOW * M_LOW) / (3 * (M_HIGH - M_LOW));
+
+    private final double[] p = new double[K];
+    private final double[][] pay = new double[K][CELLS + 1];   // credits per credit bet
+    private final double[][][] branch = new double[K][CELLS + 1][CELLS + 1];
+    private final double[][] survivorTerms = new double[K][MIN_MATCHES]; // p^j / j!
+    private final double[] factorial = new double[CELLS + 1];
+
+    // Next-step payout moments given a survivor count and refill size
+    private final double[][][] refillMean = new double[K][MIN_MATCHES][CELLS + 1];
+    private final double[][][] refillSquare = new double[K][MIN_MATCHES][CELLS + 1];
+    private final double[][][][][] refillCross = new double[K][K][][][];
+
+    public RtpEstimator(SymbolSampler sampler, Paytable paytable) {
+        factorial[0] = 1.0;
+        for (int n = 1; n <= CELLS; n++) {
+            factorial[n] = factorial[n - 1] * n;
+        }
+        for (int k = 0; k < K; k++) {
+            p[k] = sampler.getProbability(k);
+            for (int c = 0; c <= CELLS; c++) {
+                pay[k][c] = (double) paytable.payout(k, c, Paytable.MILLIS_PER_CREDIT) / Paytable.MILLIS_PER_CREDIT;
+            }
+            for (int j = 0; j < MIN_MATCHES; j++) {
+                survivorTerms[k][j] = Math.pow(p[k], j) / factorial[j];
+            }
+        }
+        buildBranchTable();
+        buildRefillTables();
+    }
+
+    public static void main(String[] args) {
+        long start = System.nanoTime();
+        RtpEstimator estimator = new RtpEstimator(SpinEngine.SAMPLER, SpinEngine.PAYTABLE);
+        Report report = estimator.calculate();
+        report.print();
+        System.out.printf("%nElapsed: %.2fs%n", (System.nanoTime() - start) / 1e9);
+    }
+
+    /**
+     * Conditional binomials that draw the multinomial one symbol at a time:
+     * symbol k takes j of the remaining n cells with probability p_k / (p_k + ... + p_last).
+     */
+    private void buildBranchTable() {
+        for (int k = 0; k < K; k++) {
+            double rest = 0.0;
+            for (int i = k; i < K; i++) {
+                rest += p[i];
+            }
+            double q = k == K - 1 ? 1.0 : Math.min(1.0, p[k] / rest);
+            for (int n = 0; n <= CELLS; n++) {
+                for (int j = 0; j <= n; j++) {
+                    branch[k][n][j] = binomial(n, j, q);
+                }
+            }
+        }
+    }
+
+    /**
+     * Memoizes the moments of the next step's payout for every (survivors, refill) pair,
+     * per symbol and per symbol pair, so each grid only needs table lookups.
+     */
+    private void buildRefillTables() {
+        for (int k = 0; k < K; k++) {
+            for (int s = 0; s < MIN_MATCHES; s++) {
+                for (int r = 0; r <= CELLS - s; r++) {
+                    double mean = 0.0;
+                    double square = 0.0;
+                    for (int j = 0; j <= r; j++) {
+                        double prob = binomial(r, j, p[k]);
+                        double x = pay[k][s + j];
+                        mean += prob * x;
+                        square += prob * x * x;
+                    }
+                    refillMean[k][s][r] = mean;
+                    refillSquare[k][s][r] = square;
+                }
+            }
+        }
+
+        IntStream.range(0, K * K).parallel().forEach(pair -> {
+            int a = pair / K;
+            int b = pair % K;
+            if (a >= b) {
+                return;
+            }
+            double rest = 1.0 - p[a] - p[b];
+            double[][][] table = new double[MIN_MATCHES][MIN_MATCHES][CELLS + 1];
+            for (int sa = 0; sa < MIN_MATCHES; sa++) {
+                for (int sb = 0; sb < MIN_MATCHES; sb++) {
+                    for (int r = 0; r <= CELLS - sa - sb; r++) {
+                        double sum = 0.0;
+                        for (int i = 0; i <= r; i++) {
+                            double xa = pay[a][sa + i];
+                            if (xa == 0.0) {
+                                continue;
+                            }
+                            for (int j = 0; i + j <= r; j++) {
+                                double xb = pay[b][sb + j];
+                                if (xb == 0.0) {
+                                    continue;
+                                }
+                                double prob = factorial[r] / (factorial[i] * factorial[j] * factorial[r - i - j])
+                                        * Math.pow(p[a], i) * Math.pow(p[b], j) * Math.pow(Math.max(rest, 0.0), r - i - j);
+                                sum += prob * xa * xb;
+                            }
+                        }
+                        table[sa][sb][r] = sum;
+                    }
+                }
+            }
+            refillCross[a][b] = table;
+        });
+    }
+
+    private double binomial(int n, int j, double q) {
+        return factorial[n] / (factorial[j] * factorial[n - j]) * Math.pow(q, j) * Math.pow(1.0 - q, n - j);
+    }
+
+    /**
+     * Enumerates every initial grid in parallel, split over the counts of the first two symbols.
+     */
+    public Report calculate() {
+        List<int[]> prefixes = new ArrayList<>();
+        for (int c0 = 0; c0 <= CELLS; c0++) {
+            for (int c1 = 0; c0 + c1 <= CELLS; c1++) {
+                prefixes.add(new int[]{c0, c1});
+            }
+        }
+        GridMoments moments = prefixes.parallelStream()
+                .map(prefix -> new Enumeration().run(prefix[0], prefix[1]))
+                .reduce(new GridMoments(), GridMoments::merge);
+        return new Report(moments);
+    }
+
+    /**
+     * Moments of the first two winning steps, before mermaid multipliers.
+     */
+    static class GridMoments {
+        double noWin;          // P(first evaluation loses)
+        double oneWin;         // P(first wins, second loses)
+        double twoWins;        // P(first two evaluations win)
+        double x1;             // E[X1]
+        double x1Square;       // E[X1^2]
+        double x2;             // E[X2]
+        double x2Square;       // E[X2^2]
+        double x1x2;           // E[X1 * X2]
+        final double[][] tierProbability = new double[K][Paytable.TIERS];
+
+        GridMoments merge(GridMoments other) {
+            GridMoments sum = new GridMoments();
+            sum.noWin = noWin + other.noWin;
+            sum.oneWin = oneWin + other.oneWin;
+            sum.twoWins = twoWins + other.twoWins;
+            sum.x1 = x1 + other.x1;
+            sum.x1Square = x1Square + other.x1Square;
+            sum.x2 = x2 + other.x2;
+            sum.x2Square = x2Square + other.x2Square;
+            sum.x1x2 = x1x2 + other.x1x2;
+            for (int k = 0; k < K; k++) {
+                for (int t = 0; t < Paytable.TIERS; t++) {
+                    sum.tierProbability[k][t] = tierProbability[k][t] + other.tierProbability[k][t];
+                }
+            }
+            return sum;
+        }
+    }
+
+    /**
+     * Walks all symbol counts below a fixed prefix, one symbol per recursion level.
+     * Each level also extends the product of truncated exponential series used for
+     * P(no winner after refill) = r! [z^r] prod_k sum_{j <= 7 - s_k} (p_k z)^j / j!.
+     */
+    private class Enumeration {
+        private final int[] counts = new int[K];
+        private final double[][] noWinSeries = new double[K + 1][CELLS + 1];
+        private final GridMoments moments = new GridMoments();
+
+        GridMoments run(int c0, int c1) {
+            noWinSeries[0][0] = 1.0;
+            double prob = branch[0][CELLS][c0];
+            counts[0] = c0;
+            extendSeries(0);
+            prob *= branch[1][CELLS - c0][c1];
+            counts[1] = c1;
+            extendSeries(1);
+            descend(2, CELLS - c0 - c1, prob);
+            return moments;
+        }
+
+        private void descend(int k, int remaining, double prob) {
+            if (prob == 0.0) {
+                return;
+            }
+            if (k == K - 1) {
+                counts[k] = remaining;
+                score(prob);
+                return;
+            }
+            for (int c = 0; c <= remaining; c++) {
+                counts[k] = c;
+                // The series for the last symbol is folded in when the grid is scored
+                if (k < K - 2) {
+                    extendSeries(k);
+                }
+                descend(k + 1, remaining - c, prob * branch[k][remaining][c]);
+            }
+        }
+
+        private void extendSeries(int k) {
+            double[] from = noWinSeries[k];
+            double[] to = noWinSeries[k + 1];
+            Arrays.fill(to, 0.0);
+            int limit = MAX_SURVIVORS - survivors(k);
+            for (int d = 0; d <= CELLS; d++) {
+                if (from[d] == 0.0) {
+                    continue;
+                }
+                for (int j = 0; j <= limit && d + j <= CELLS; j++) {
+                    to[d + j] += from[d] * survivorTerms[k][j];
+                }
+            }
+        }
+
+        private int survivors(int k) {
+            return counts[k] >= MIN_MATCHES ? 0 : counts[k];
+        }
+
+        private void score(double prob) {
+            int refill = 0;
+            double x1 = 0.0;
+            for (int k = 0; k < K; k++) {
+                if (counts[k] >= MIN_MATCHES) {
+                    refill += counts[k];
+                    x1 += pay[k][counts[k]];
+                    moments.tierProbability[k][SpinEngine.PAYTABLE.tier(counts[k])] += prob;
+                }
+            }
+            if (refill == 0) {
+                moments.noWin += prob;
+                return;
+            }
+
+            // Payout moments of the step after the cascade, from the memoized tables
+            double mean = 0.0;
+            double square = 0.0;
+            for (int a = 0; a < K; a++) {
+                int sa = survivors(a);
+                mean += refillMean[a][sa][refill];
+                square += refillSquare[a][sa][refill];
+                for (int b = a + 1; b < K; b++) {
+                    square += 2.0 * refillCross[a][b][sa][survivors(b)][refill];
+                }
+            }
+
+            // Fold the last two symbols into the no-win series at z^refill
+            double[] series = noWinSeries[K - 2];
+            int limitA = MAX_SURVIVORS - survivors(K - 2);
+            int limitB = MAX_SURVIVORS - survivors(K - 1);
+            double coefficient = 0.0;
+            for (int i = 0; i <= limitA && i <= refill; i++) {
+                for (int j = 0; j <= limitB && i + j <= refill; j++) {
+                    coefficient += series[refill - i - j] * survivorTerms[K - 2][i] * survivorTerms[K - 1][j];
+                }
+            }
+            double secondLoses = Math.min(1.0, factorial[refill] * coefficient);
+
+            moments.oneWin += prob * secondLoses;
+            moments.twoWins += prob * (1.0 - secondLoses);
+            moments.x1 += prob * x1;
+            moments.x1Square += prob * x1 * x1;
+            moments.x2 += prob * mean;
+            moments.x2Square += prob * square;
+            moments.x1x2 += prob * x1 * mean;
+        }
+    }
+
+    /**
+     * Combines the grid moments and the extrapolated tail with the mermaid chance Markov chain.
+     */
+    static class Report {
+        private final GridMoments moments;
+        private final double[] expectedReturn = new double[CHANCE_LEVELS];
+        private final double[] tailReturn = new double[CHANCE_LEVELS]; // Extrapolated part of expectedReturn
+        private final double[] expectedSquare = new double[CHANCE_LEVELS];
+        private final double[][] transition = new double[CHANCE_LEVELS][CHANCE_LEVELS];
+        private final double[] stationary;
+
+        // P(a winning step is followed by another win), from the first two steps
+        private final double continuation;
+
+        Report(GridMoments moments) {
+            this.moments = moments;
+            this.continuation = moments.twoWins / (1.0 - moments.noWin);
+            for (int level = 0; level < CHANCE_LEVELS; level++) {
+                solveLevel(level);
+            }
+            this.stationary = stationaryDistribution();
+        }
+
+        private static double chance(int level) {
+            return SpinEngine.MIN_MERMAID_CHANCE + CHANCE_STEP * level;
+        }
+
+        private static int raise(int level, int steps) {
+            return Math.min(CHANCE_LEVELS - 1, level + steps);
+        }
+
+        // P(the spin reaches its n-th evaluation), n from 1; past the third it is extrapolated
+        private double reach(int n) {
+            if (n == 1) {
+                return 1.0;
+            }
+            if (n == 2) {
+                return 1.0 - moments.noWin;
+            }
+            return moments.twoWins * Math.pow(continuation, n - 3);
+        }
+
+        // Expected base payout of the n-th winning step over all spins
+        private double basePayout(int n) {
+            return n == 1 ? moments.x1 : moments.x2 * Math.pow(continuation, n - 2);
+        }
+
+        /**
+         * Mermaid draws are independent of the grids, so each step's multiplier
+         * depends only on the chance level it starts from. The level distribution
+         * is carried from step to step: a mermaid resets it, and every winning step
+         * after the first raises it unless the mermaid fired.
+         */
+        private void solveLevel(int level) {
+            double[] row = transition[level];
+            double[] levels = new double[CHANCE_LEVELS];
+            levels[level] = 1.0;
+            for (int n = 1; reach(n) > TAIL_CUTOFF; n++) {
+                // The spin ends if evaluation n loses, raising the chance once more
+                double wins = reach(n + 1);
+                double ends = reach(n) - wins;
+                double multiplier = 0.0;
+                double[] next = new double[CHANCE_LEVELS];
+                for (int from = 0; from < CHANCE_LEVELS; from++) {
+                    if (levels[from] == 0.0) {
+                        continue;
+                    }
+                    double c = chance(from);
+                    row[raise(from, LOSS_STEP)] += ends * levels[from];
+                    multiplier += levels[from] * (c * M_MEAN + (1 - c));
+                    next[0] += levels[from] * c;
+                    next[n == 1 ? from : raise(from, CONSECUTIVE_STEP)] += levels[from] * (1 - c);
+                }
+                double stepReturn = basePayout(n) * multiplier;
+                expectedReturn[level] += stepReturn;
+                if (n > 2) {
+                    tailReturn[level] += stepReturn;
+                }
+                levels = next;
+            }
+            // Whatever is left past the cutoff ends at the top levels; it is below 1e-15
+            double covered = Arrays.stream(row).sum();
+            row[CHANCE_LEVELS - 1] += Math.max(0.0, 1.0 - covered);
+
+            // Second moment of the first two steps only; the tail is not included
+            double c0 = chance(level);
+            double floor = chance(0);
+            double m1 = c0 * M_MEAN + (1 - c0);
+            double m1Square = c0 * M_SECOND + (1 - c0);
+            double m2Floor = floor * M_MEAN + (1 - floor);
+            double m2 = c0 * m2Floor + (1 - c0) * m1;
+            double m2Square = c0 * (floor * M_SECOND + (1 - floor)) + (1 - c0) * m1Square;
+            double m1m2 = c0 * M_MEAN * m2Floor + (1 - c0) * m1;
+            expectedSquare[level] = moments.x1Square * m1Square + 2 * moments.x1x2 * m1m2 + moments.x2Square * m2Square;
+        }
+
+        private double[] stationaryDistribution() {
+            double[] pi = new double[CHANCE_LEVELS];
+            pi[0] = 1.0;
+            for (int iteration = 0; iteration < 10_000; iteration++) {
+                double[] next = new double[CHANCE_LEVELS];
+                for (int i = 0; i < CHANCE_LEVELS; i++) {
+                    for (int j = 0; j < CHANCE_LEVELS; j++) {
+                        next[j] += pi[i] * transition[i][j];
+                    }
+                }
+                double delta = 0.0;
+                for (int i = 0; i < CHANCE_LEVELS; i++) {
+                    delta += Math.abs(next[i] - pi[i]);
+                }
+                pi = next;
+                if (delta < 1e-15) {
+                    break;
+                }
+            }
+            return pi;
+        }
+
+        // Includes the extrapolated tail, which runs high
+        public double getRtp() {
+            return weighted(expectedReturn);
+        }
+
+        // Part of getRtp() extrapolated past the second winning step
+        public double getTailRtp() {
+            return weighted(tailReturn);
+        }
+
+        // Return of the first two winning steps alone
+        public double getTwoStepRtp() {
+            return getRtp() - getTailRtp();
+        }
+
+        private double weighted(double[] perLevel) {
+            double sum = 0.0;
+            for (int level = 0; level < CHANCE_LEVELS; level++) {
+                sum += stationary[level] * perLevel[level];
+            }
+            return sum;
+        }
+
+        // Variance of the return of the first two winning steps alone
+        public double getTwoStepVariance() {
+            double rtp = getTwoStepRtp();
+            return weighted(expectedSquare) - rtp * rtp;
+        }
+
+        void print() {
+            double hit = 1.0 - moments.noWin;
+            System.out.printf("First two winning steps enumerated, later steps extrapolated%n%n");
+            System.out.printf("RTP, first two steps:    %.4f%%%n", getTwoStepRtp() * 100);
+            System.out.printf("RTP estimate:            %.4f%% (extrapolated past step 2, runs high; see RtpSimulator)%n",
+                    getRtp() * 100);
+            System.out.printf("Variance, first two:     %.4f (std dev %.4f x bet)%n",
+                    getTwoStepVariance(), Math.sqrt(getTwoStepVariance()));
+            System.out.printf("Hit frequency:           %.4f%%%n", hit * 100);
+            System.out.printf("First cascade wins:      %.4f%% of spins go on to a third evaluation%n", moments.twoWins * 100);
+            System.out.printf("Tail continuation:       %.4f%% of first wins are followed by a second%n", continuation * 100);
+            System.out.printf("Base RTP, first step:    %.4f%%%n", moments.x1 * 100);
+            System.out.printf("Base RTP, second step:   %.4f%%%n", moments.x2 * 100);
+
+            System.out.printf("%nMermaid chance (stationary, with the extrapolated tail):%n");
+            for (int level = 0; level < CHANCE_LEVELS; level++) {
+                System.out.printf("  %3.0f%%  %8.4f%%   E[return] %.4f%n", chance(level) * 100,
+                        stationary[level] * 100, expectedReturn[level]);
+            }
+
+            System.out.printf("%nInitial grid tier probabilities:%n");
+            for (int k = 0; k < K; k++) {
+                System.out.printf("  %-9s", SpinEngine.SYMBOLS[k].getName());
+                for (int t = 0; t < Paytable.TIERS; t++) {
+                    System.out.printf(" %12.8f", moments.tierProbability[k][t]);
+                }
+                System.out.println();
+            }
+        }
+    }
+}
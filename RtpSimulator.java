@@ -0,0 +1,167 @@
+import java.io.PrintStream;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Command-line Monte Carlo simulator for the paytable.
+ * Usage: java RtpSimulator [spins] [seed] [threads]
+ */
+public class RtpSimulator {
+    // Spins per leaf task; large enough that mermaid chance reaches its steady state
+    private static final long LEAF_SPINS = 1 << 18;
+    private static final int MAX_DEPTH_BUCKET = 16;
+    private static final int TIERS = Paytable.TIERS;
+    private static final String[] TIER_NAMES = {"8-9", "10-11", "12+"};
+    private static final long BET = Paytable.MILLIS_PER_CREDIT;
+
+    public static void main(String[] args) {
+        long spins = args.length > 0 ? Long.parseLong(args[0]) : 10_000_000L;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : System.nanoTime();
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+
+        System.out.printf("Simulating %,d spins on %d threads (seed %d)%n", spins, threads, seed);
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        long start = System.nanoTime();
+        SimulationStats stats = pool.invoke(new SimulationTask(spins, new SplittableRandom(seed)));
+        long elapsed = System.nanoTime() - start;
+        pool.shutdown();
+
+        stats.print(System.out);
+        System.out.printf("%nElapsed: %.2fs (%,.0f spins/s)%n", elapsed / 1e9, spins / (elapsed / 1e9));
+    }
+
+    /**
+     * Runs the given number of spins, splitting the work in half until it fits in one leaf.
+     * Every split hands each half its own RNG stream so results do not depend on scheduling.
+     */
+    static class SimulationTask extends RecursiveTask<SimulationStats> {
+        private final long spins;
+        private final SplittableRandom random;
+
+        SimulationTask(long spins, SplittableRandom random) {
+            this.spins = spins;
+            this.random = random;
+        }
+
+        @Override
+        protected SimulationStats compute() {
+            if (spins <= LEAF_SPINS) {
+                return simulate();
+            }
+            long half = spins / 2;
+            SimulationTask left = new SimulationTask(half, random.split());
+            SimulationTask right = new SimulationTask(spins - half, random.split());
+            left.fork();
+            SimulationStats stats = right.compute();
+            stats.merge(left.join());
+            return stats;
+        }
+
+        private SimulationStats simulate() {
+            SpinEngine engine = new SpinEngine(random);
+            SimulationStats stats = new SimulationStats();
+            SpinResult result = new SpinResult();
+            for (long i = 0; i < spins; i++) {
+                stats.record(engine.evaluate(BET, result));
+            }
+            return stats;
+        }
+    }
+
+    /**
+     * Mergeable accumulator for one worker's spins.
+     */
+    static class SimulationStats {
+        private long spins;
+        private long hits;
+        private long totalBet;
+        private long totalWin;
+        private double sumReturnSquared;
+        private double maxReturn;
+        private long winningSteps;
+        private long mermaidTriggers;
+        private final long[] depthHistogram = new long[MAX_DEPTH_BUCKET + 1];
+        private final long[][] tierHits = new long[SpinEngine.SYMBOLS.length][TIERS];
+        private final long[][] tierPaid = new long[SpinEngine.SYMBOLS.length][TIERS];
+
+        void record(SpinResult result) {
+            double spinReturn = (double) result.getTotalWin() / result.getBet();
+            spins++;
+            totalBet += result.getBet();
+            totalWin += result.getTotalWin();
+            sumReturnSquared += spinReturn * spinReturn;
+            maxReturn = Math.max(maxReturn, spinReturn);
+            if (result.getStepCount() > 0) {
+                hits++;
+            }
+            depthHistogram[Math.min(result.getStepCount(), MAX_DEPTH_BUCKET)]++;
+
+            for (int i = 0; i < result.getStepCount(); i++) {
+                CascadeStep step = result.getStep(i);
+                winningSteps++;
+                if (step.isMermaidTriggered()) {
+                    mermaidTriggers++;
+                }
+                int[] counts = step.getSymbolCounts();
+                for (int k = 0; k < counts.length; k++) {
+                    int tier = SpinEngine.PAYTABLE.tier(counts[k]);
+                    if (tier >= 0) {
+                        tierHits[k][tier]++;
+                        tierPaid[k][tier] += SpinEngine.PAYTABLE.payout(k, counts[k], result.getBet());
+                    }
+                }
+            }
+        }
+
+        void merge(SimulationStats other) {
+            spins += other.spins;
+            hits += other.hits;
+            totalBet += other.totalBet;
+            totalWin += other.totalWin;
+            sumReturnSquared += other.sumReturnSquared;
+            maxReturn = Math.max(maxReturn, other.maxReturn);
+            winningSteps += other.winningSteps;
+            mermaidTriggers += other.mermaidTriggers;
+            for (int i = 0; i < depthHistogram.length; i++) {
+                depthHistogram[i] += other.depthHistogram[i];
+            }
+            for (int k = 0; k < tierHits.length; k++) {
+                for (int t = 0; t < TIERS; t++) {
+                    tierHits[k][t] += other.tierHits[k][t];
+                    tierPaid[k][t] += other.tierPaid[k][t];
+                }
+            }
+        }
+
+        void print(PrintStream out) {
+            double rtp = (double) totalWin / totalBet;
+            double meanReturn = (double) totalWin / BET / spins;
+            double variance = sumReturnSquared / spins - meanReturn * meanReturn;
+
+            out.printf("%nRTP:              %.4f%%%n", rtp * 100);
+            out.printf("Hit frequency:    %.4f%%%n", 100.0 * hits / spins);
+            out.printf("Variance:         %.4f (std dev %.4f x bet)%n", variance, Math.sqrt(variance));
+            out.printf("Max spin return:  %.2f x bet%n", maxReturn);
+            out.printf("Mermaid triggers: %.4f%% of winning steps, %.4f per spin%n",
+                    winningSteps == 0 ? 0.0 : 100.0 * mermaidTriggers / winningSteps, (double) mermaidTriggers / spins);
+
+            out.printf("%nCascade depth (winning steps per spin):%n");
+            for (int d = 0; d < depthHistogram.length; d++) {
+                if (depthHistogram[d] > 0) {
+                    out.printf("  %2d%s %14d  %8.4f%%%n", d, d == MAX_DEPTH_BUCKET ? "+" : " ",
+                            depthHistogram[d], 100.0 * depthHistogram[d] / spins);
+                }
+            }
+
+            out.printf("%nBase payouts by symbol and tier (before mermaid multiplier):%n");
+            out.printf("  %-9s %-6s %14s %12s %10s%n", "Symbol", "Tier", "Hits", "Per spin", "RTP share");
+            for (int k = 0; k < tierHits.length; k++) {
+                for (int t = 0; t < TIERS; t++) {
+                    out.printf("  %-9s %-6s %14d %12.6f %9.4f%%%n", SpinEngine.SYMBOLS[k].getName(), TIER_NAMES[t],
+                            tierHits[k][t], (double) tierHits[k][t] / spins, 100.0 * tierPaid[k][t] / totalBet);
+                }
+            }
+        }
+    }
+}
@@ -6,8 +6,9 @@ public class SlotMachine extends JFrame {
     // UI Components
     private static final int ROWS = 5;
     private static final int COLS = 6;
-    private JLabel[][] reels = new JLabel[ROWS][COLS]; // 5 rows x 6 columns
     private JButton spinButton = new JButton("SPIN");
+    private JButton autoButton = new JButton("AUTO");
+    private JToggleButton turboButton = new JToggleButton("TURBO");
     private JLabel accountLabel = new JLabel("Balance:");
     private JLabel accountBalance = new JLabel("$1000.00");
     private JLabel lblInsertCoin = new JLabel("Coin Value:");
@@ -20,6 +21,7 @@ public class SlotMachine extends JFrame {
     private JLabel betMultiplierDisplay = new JLabel("1x");
     private JLabel totalBetDisplay = new JLabel("Total Bet: $0.05");
     private JLabel messageLabel = new JLabel("");
+    private final WinMessagePresenter messages = new WinMessagePresenter(messageLabel);
     private JLabel mermaidChanceLabel = new JLabel("Mermaid Chance: 10%");
     
     // Volume controls
@@ -29,40 +31,71 @@ public class SlotMachine extends JFrame {
     private JButton increaseVol = new JButton("+");
     
     // Image paths
-    private final String BG_PATH = "Assets/scales.jpg";
-    private final String LEFT_DECOR = "Assets/leftDecor.jpg";
-    private final String RIGHT_DECOR = "Assets/rightDecor.jpg";
-    private final String TOP_DECOR = "Assets/topDecor.jpg";
+    static final String BG_PATH = "Assets/scales.jpg";
+    static final String LEFT_DECOR = "Assets/leftDecor.jpg";
+    static final String RIGHT_DECOR = "Assets/rightDecor.jpg";
+    static final String TOP_DECOR = "Assets/topDecor.jpg";
+
+    // Frame and decoration sizes, also used to pre-scale the images
+    static final int FRAME_WIDTH = 1000;
+    static final int FRAME_HEIGHT = 600;
+    static final int TOP_DECOR_HEIGHT = 100;
+    static final int SIDE_DECOR_WIDTH = (int) (FRAME_WIDTH * 0.15);
+    static final int SIDE_DECOR_HEIGHT = 500;
 
     // Game components
     private GameState gameState;
     private GameLogic gameLogic;
     private NumberFormat currencyFormat = NumberFormat.getCurrencyInstance();
-    private static final Font SYMBOL_FONT = new Font("Segoe UI Emoji", Font.PLAIN, 40);
+    static final Font SYMBOL_FONT = new Font("Segoe UI Emoji", Font.PLAIN, 40);
+    private final ReelCanvas reels; // 5 rows x 6 columns
 
     // Sound Manager
-    private final SlotSoundManager soundManager = new SlotSoundManager();
-    private final String BACKGROUND_MUSIC = "bg_music"; // Identifier for background music
-
+    private final SlotSoundManager soundManager;
+    static final String BACKGROUND_MUSIC = "bg_music"; // Identifier for background music
+    static final String BACKGROUND_MUSIC_PATH = "Audio/backgroundmusic.wav"; // Streamed, not decoded
+    // Sound effect names and files
+    static final String[][] SOUNDS = {
+            {"spin", "Audio/buttonClick.wav"},
+            {"jackpot", "Audio/jackpot.wav"},
+            {"smallwin", "Audio/smallwin.wav"},
+    };
+
+    // Autoplay settings, kept between sessions; limits are in total bets and 0 switches one off
+    private final JSpinner autoplaySpins = new JSpinner(new SpinnerNumberModel(50, 1, 1000, 10));
+    private final JSpinner autoplayFloor = new JSpinner(new SpinnerNumberModel(0.0, 0.0, 1_000_000.0, 10.0));
+    private final JSpinner autoplayWinLimit = new JSpinner(new SpinnerNumberModel(100, 0, 10_000, 10));
+    private final JSpinner autoplayLossLimit = new JSpinner(new SpinnerNumberModel(50, 0, 10_000, 10));
+
+    /**
+     * Builds the game window, loading everything on the calling thread.
+     * GameLauncher preloads in parallel and uses the other constructor.
+     */
     public SlotMachine() {
+        this(new SymbolAtlas(SYMBOL_FONT), loadSounds());
+    }
+
+    public SlotMachine(SymbolAtlas atlas, SlotSoundManager soundManager) {
+        this(atlas, soundManager, new GameState());
+    }
+
+    public SlotMachine(SymbolAtlas atlas, SlotSoundManager soundManager, GameState gameState) {
+        this.reels = new ReelCanvas(atlas);
+        this.soundManager = soundManager;
+
         // Frame setup
         setTitle("Secrets of the Mermaid");
-        setSize(1000, 600); 
+        setSize(FRAME_WIDTH, FRAME_HEIGHT);
         setDefaultCloseOperation(EXIT_ON_CLOSE);
         setResizable(false);
         setLayout(null); // Use absolute positioning
 
-        // Load and loop background music
-        soundManager.load(BACKGROUND_MUSIC, "Audio/backgroundmusic.wav");
-        soundManager.load("spin", "Audio/buttonClick.wav");
-        soundManager.load("jackpot", "Audio/jackpot.wav");
-        soundManager.load("smallwin", "Audio/smallwin.wav");
-        
+        // Loop background music
         soundManager.setGlobalVolume(0.5f); // Default to 50%
         soundManager.loop(BACKGROUND_MUSIC);
 
         // Initialize game components
-        gameState = new GameState();
+        this.gameState = gameState;
         gameLogic = new GameLogic(gameState, this);
 
         // Main panel with background
@@ -70,50 +103,35 @@ public class SlotMachine extends JFrame {
             @Override
             protected void paintComponent(Graphics g) {
                 super.paintComponent(g);
-                Image bg = new ImageIcon(BG_PATH).getImage();
-                g.drawImage(bg, 0, 0, getWidth(), getHeight(), this);
+                // Pre-scaled to the panel once; repaints only blit it
+                Image bg = AssetCache.scaled(BG_PATH, getWidth(), getHeight());
+                g.drawImage(bg, 0, 0, this);
             }
         };
-        mainPanel.setBounds(0, 0, 1000, 600);
+        mainPanel.setBounds(0, 0, FRAME_WIDTH, FRAME_HEIGHT);
         add(mainPanel);
 
         // Top decoration
-        JLabel topPanel = new JLabel(new ImageIcon(TOP_DECOR));
-        topPanel.setBounds(0, 0, 1000, 100);
+        JLabel topPanel = new JLabel(AssetCache.icon(AssetCache.centered(TOP_DECOR, FRAME_WIDTH, TOP_DECOR_HEIGHT)));
+        topPanel.setBounds(0, 0, FRAME_WIDTH, TOP_DECOR_HEIGHT);
         mainPanel.add(topPanel);
 
         // Side decorations (15% width)
-        int sidePanelWidth = (int)(getWidth() * 0.15);
+        int sidePanelWidth = SIDE_DECOR_WIDTH;
 
         // Left decoration
-        JLabel leftPanel = new JLabel(new ImageIcon(LEFT_DECOR));
-        leftPanel.setBounds(0, 100, sidePanelWidth, 500);
+        JLabel leftPanel = new JLabel(AssetCache.icon(AssetCache.centered(LEFT_DECOR, sidePanelWidth, SIDE_DECOR_HEIGHT)));
+        leftPanel.setBounds(0, 100, sidePanelWidth, SIDE_DECOR_HEIGHT);
         mainPanel.add(leftPanel);
 
         // Right decoration
-        JLabel rightPanel = new JLabel(new ImageIcon(RIGHT_DECOR));
-        rightPanel.setBounds(850, 100, sidePanelWidth, 500);
+        JLabel rightPanel = new JLabel(AssetCache.icon(AssetCache.centered(RIGHT_DECOR, sidePanelWidth, SIDE_DECOR_HEIGHT)));
+        rightPanel.setBounds(850, 100, sidePanelWidth, SIDE_DECOR_HEIGHT);
         mainPanel.add(rightPanel);
 
-        // Create 5x6 grid of reels
-        JPanel reelsPanel = new JPanel(new GridLayout(ROWS, COLS, 10, 10)); // 5 rows, 6 columns
-        reelsPanel.setBounds(150 + 15, 120, 700 - 30, 300);
-        reelsPanel.setBackground(Color.WHITE);
-        reelsPanel.setOpaque(true);
-        reelsPanel.setBorder(BorderFactory.createLineBorder(Color.BLACK, 2));
-        
-        // Initialize reels
-        for (int row = 0; row < ROWS; row++) { // 5 rows
-            for (int col = 0; col < COLS; col++) { // 6 columns
-                reels[row][col] = new JLabel("🌊", JLabel.CENTER);
-                reels[row][col].setFont(SYMBOL_FONT);
-                reels[row][col].setOpaque(true);
-                reels[row][col].setBackground(Color.WHITE);
-                reels[row][col].setBorder(BorderFactory.createLineBorder(Color.LIGHT_GRAY));
-                reelsPanel.add(reels[row][col]);
-            }
-        }
-        mainPanel.add(reelsPanel);
+        // 5x6 grid of reels, drawn by one component
+        reels.setBounds(150 + 15, 120, 700 - 30, 300);
+        mainPanel.add(reels);
 
         // Control panel area
         int controlY = 440;
@@ -196,6 +214,17 @@ public class SlotMachine extends JFrame {
             soundManager.play("spin");
         });
 
+        // Autoplay and turbo, above the spin button
+        autoButton.setFont(new Font("Arial", Font.BOLD, 11));
+        autoButton.setMargin(new Insets(0, 0, 0, 0));
+        autoButton.setBounds(715, controlY, 50, 25);
+        mainPanel.add(autoButton);
+
+        turboButton.setFont(new Font("Arial", Font.BOLD, 11));
+        turboButton.setMargin(new Insets(0, 0, 0, 0));
+        turboButton.setBounds(770, controlY, 50, 25);
+        mainPanel.add(turboButton);
+
         // Volume controls - positioned on left side
         JPanel volumePanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 0, 0));  
         volumePanel.setOpaque(false); // Make panel transparent
@@ -246,17 +275,42 @@ public class SlotMachine extends JFrame {
 
         // Setup button actions
         setupButtonActions();
+
+        // F3 shows frame times and EDT load
+        ProfilerOverlay.attach(this);
         
         // Initial display updates
         updateDisplays();
     }
 
+    static SlotSoundManager loadSounds() {
+        SlotSoundManager manager = new SlotSoundManager();
+        manager.loadStream(BACKGROUND_MUSIC, BACKGROUND_MUSIC_PATH);
+        for (String[] sound : SOUNDS) {
+            manager.load(sound[0], sound[1]);
+        }
+        return manager;
+    }
+
     public void setPlayerName(String username) {
         accountLabel.setText(username);  // Replace "Player" with the username
     }
 
     private void setupButtonActions() {
         spinButton.addActionListener(_ -> gameLogic.spin());
+
+        autoButton.addActionListener(_ -> {
+            if (gameLogic.isAutoplaying()) {
+                gameLogic.stopAutoplay();
+            } else {
+                AutoplaySettings settings = askAutoplaySettings();
+                if (settings != null) {
+                    gameLogic.startAutoplay(settings);
+                }
+            }
+        });
+
+        turboButton.addActionListener(_ -> gameLogic.setTurbo(turboButton.isSelected()));
         
         increaseCoin.addActionListener(_ -> {
             if (!gameState.isSpinning()) {
@@ -287,6 +341,33 @@ public class SlotMachine extends JFrame {
         });
     }
 
+    /**
+     * Asks for the number of spins and the stop conditions, starting from the last
+     * values used. Returns null if the player cancels.
+     */
+    private AutoplaySettings askAutoplaySettings() {
+        JPanel form = new JPanel(new GridLayout(4, 2, 5, 5));
+        form.add(new JLabel("Spins:"));
+        form.add(autoplaySpins);
+        form.add(new JLabel("Stop below balance ($, 0 = off):"));
+        form.add(autoplayFloor);
+        form.add(new JLabel("Stop on a win of (x bet, 0 = off):"));
+        form.add(autoplayWinLimit);
+        form.add(new JLabel("Stop after losing (x bet, 0 = off):"));
+        form.add(autoplayLossLimit);
+        int choice = JOptionPane.showConfirmDialog(this, form, "Autoplay", JOptionPane.OK_CANCEL_OPTION,
+                JOptionPane.PLAIN_MESSAGE);
+        if (choice != JOptionPane.OK_OPTION) {
+            return null;
+        }
+        long bet = gameState.getTotalBetMillis();
+        return new AutoplaySettings(
+                ((Number) autoplaySpins.getValue()).intValue(),
+                Paytable.toMillis(((Number) autoplayFloor.getValue()).doubleValue()),
+                bet * ((Number) autoplayWinLimit.getValue()).intValue(),
+                bet * ((Number) autoplayLossLimit.getValue()).intValue());
+    }
+
     private void updateDisplays() {
         accountBalance.setText(currencyFormat.format(gameState.getBalance()));
         coinValueDisplay.setText(currencyFormat.format(gameState.getCoinValue()));
@@ -294,6 +375,16 @@ public class SlotMachine extends JFrame {
         totalBetDisplay.setText("Total Bet: " + currencyFormat.format(gameState.getTotalBet()));
     }
 
+    // Shows a balance that the reels have caught up to, in milli-credits
+    public void showBalance(long balanceMillis) {
+        accountBalance.setText(currencyFormat.format(Paytable.toCredits(balanceMillis)));
+    }
+
+    public void setAutoplayActive(boolean active) {
+        autoButton.setText(active ? "STOP" : "AUTO");
+        spinButton.setEnabled(!active);
+    }
+
     public void updateBalanceDisplay() {
         SwingUtilities.invokeLater(() -> {
             accountBalance.setText(currencyFormat.format(gameState.getBalance()));
@@ -301,20 +392,24 @@ public class SlotMachine extends JFrame {
     }
 
     public void updateSymbol(int row, int col, String symbol) {
-        reels[row][col].setText(symbol);
+        reels.setSymbol(row, col, symbol);
     }
 
     public void scaleSymbol(int row, int col, int scale) {
-        Font currentFont = reels[row][col].getFont();
-        reels[row][col].setFont(currentFont.deriveFont((float)(SYMBOL_FONT.getSize() * scale / 100)));
+        reels.setScale(row, col, scale);
+    }
+
+    // Vertical offset in percent of a cell height, used for reel scrolling and cascade drops
+    public void offsetSymbol(int row, int col, int offset) {
+        reels.setOffset(row, col, offset);
     }
 
     public void resetSymbolScale(int row, int col) {
-        reels[row][col].setFont(SYMBOL_FONT);
+        scaleSymbol(row, col, SymbolAtlas.NORMAL_SCALE);
     }
 
     public void highlightSymbol(int row, int col, boolean highlight) {
-        reels[row][col].setForeground(highlight ? Color.RED : Color.BLACK);
+        reels.setHighlighted(row, col, highlight);
     }
 
     public void showWinMessage(String message) {
@@ -322,10 +417,27 @@ public class SlotMachine extends JFrame {
     }
 
     public void showWinMessage(String message, int durationMs) {
-        messageLabel.setText(message);
-        Timer timer = new Timer(durationMs, _ -> messageLabel.setText(""));
-        timer.setRepeats(false);
-        timer.start();
+        messages.showInfo(message, durationMs);
+    }
+
+    // Shown when a spin is refused because the wallet journal has stopped saving
+    public void showWalletFailure() {
+        JOptionPane.showMessageDialog(this, "Your balance can no longer be saved, so spinning is disabled.\n"
+                + "Please restart the game; the last saved balance will be restored.",
+                "Wallet error", JOptionPane.ERROR_MESSAGE);
+    }
+
+    // Win amounts in milli-credits; wins within one spin are merged into a running total
+    public void showStepWin(long amount) {
+        messages.showWin(amount);
+    }
+
+    public void showMermaidWin(double multiplier, long amount) {
+        messages.showMermaidWin(multiplier, amount);
+    }
+
+    public void showTotalWin(long amount) {
+        messages.showTotal(amount);
     }
 
     public void updateMermaidChance(double chance) {
@@ -1,50 +1,165 @@
 import javax.sound.sampled.*;
 import java.io.File;
 import java.io.IOException;
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
+/**
+ * Software mixer for the game sounds. Every sound is decoded once into 16-bit stereo
+ * PCM at the mix rate. A fixed pool of voices is mixed by one thread into a single
+ * SourceDataLine, so the same sound can overlap itself and nothing holds a hardware
+ * line per sound. Volume is a gain applied while mixing. Long tracks such as the
+ * background music can instead be streamed from disk through a MusicStream.
+ */
 public class SlotSoundManager {
-    private final HashMap<String, Clip> soundClips = new HashMap<>();
-    private float currentVolume = 1.0f; // Default volume (100%)
+    private static final float SAMPLE_RATE = 44100f;
+    private static final int CHANNELS = 2;
+    private static final AudioFormat MIX_FORMAT = new AudioFormat(SAMPLE_RATE, 16, CHANNELS, true, false);
+    private static final int VOICES = 16;
+    // About 12 ms per block; the line holds four blocks
+    private static final int BLOCK_FRAMES = 512;
+    private static final int LINE_BUFFER_FRAMES = BLOCK_FRAMES * 4;
 
-    // Load and store sound clip
+    // Concurrent so sounds can be loaded in parallel at startup
+    private final Map<String, short[]> sounds = new ConcurrentHashMap<>();
+    private final Map<String, MusicStream.Source> streams = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<Command> commands = new ConcurrentLinkedQueue<>();
+    private volatile float currentVolume = 1.0f; // Default volume (100%)
+    private volatile boolean running;
+    private volatile boolean outputUnavailable;
+    private Thread mixerThread;
+
+    // Voice state; only touched by the mixing thread
+    private final short[][] voiceSamples = new short[VOICES][];
+    private final MusicStream[] voiceStreams = new MusicStream[VOICES];
+    private final String[] voiceNames = new String[VOICES];
+    private final int[] voicePositions = new int[VOICES];
+    private final boolean[] voiceLoops = new boolean[VOICES];
+    private final long[] voiceStarts = new long[VOICES];
+    private long voiceCounter;
+
+    private record Command(String name, short[] samples, MusicStream stream, boolean loop, boolean stop) {
+    }
+
+    // Load and decode a sound
     public void load(String name, String filePath) {
+        try (AudioInputStream audioIn = AudioSystem.getAudioInputStream(new File(filePath))) {
+            sounds.put(name, decode(audioIn));
+        } catch (UnsupportedAudioFileException | IOException e) {
+            System.err.println("Error loading sound: " + name);
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Registers a sound that is streamed from disk on every play instead of being decoded
+     * into memory. Files that are not in the mix format are decoded as with load().
+     */
+    public void loadStream(String name, String filePath) {
         try {
-            AudioInputStream audioIn = AudioSystem.getAudioInputStream(new File(filePath));
-            Clip clip = AudioSystem.getClip();
-            clip.open(audioIn);
-            soundClips.put(name, clip);
-            applyVolume(clip); // Apply current volume
-        } catch (UnsupportedAudioFileException | IOException | LineUnavailableException e) {
+            MusicStream.Source source = MusicStream.Source.open(filePath);
+            if (source == null) {
+                load(name, filePath);
+            } else {
+                streams.put(name, source);
+            }
+        } catch (IOException e) {
             System.err.println("Error loading sound: " + name);
             e.printStackTrace();
         }
     }
 
-    // Play sound once
-    public void play(String name) {
-        Clip clip = soundClips.get(name);
-        if (clip != null) {
-            if (clip.isRunning()) clip.stop();
-            clip.setFramePosition(0);
-            clip.start();
+    /**
+     * Decodes to interleaved 16-bit stereo at the mix rate, converting channels and
+     * sample rate in software when the file differs.
+     */
+    private static short[] decode(AudioInputStream audioIn) throws IOException {
+        AudioFormat source = audioIn.getFormat();
+        AudioFormat pcm = new AudioFormat(source.getSampleRate(), 16, source.getChannels(), true, false);
+        try (AudioInputStream pcmIn = source.matches(pcm) ? audioIn : AudioSystem.getAudioInputStream(pcm, audioIn)) {
+            byte[] bytes = pcmIn.readAllBytes();
+            int channels = pcm.getChannels();
+            int frames = bytes.length / (2 * channels);
+            short[] samples = new short[frames * channels];
+            for (int i = 0; i < samples.length; i++) {
+                samples[i] = (short) ((bytes[2 * i] & 0xFF) | (bytes[2 * i + 1] << 8));
+            }
+            return toMixFormat(samples, channels, pcm.getSampleRate());
+        }
+    }
+
+    private static short[] toMixFormat(short[] samples, int channels, float sampleRate) {
+        int frames = samples.length / channels;
+        int outFrames = (int) ((long) frames * SAMPLE_RATE / sampleRate);
+        if (channels == CHANNELS && outFrames == frames) {
+            return samples;
+        }
+        short[] out = new short[outFrames * CHANNELS];
+        double step = (double) frames / Math.max(1, outFrames);
+        for (int frame = 0; frame < outFrames; frame++) {
+            // Linear interpolation between neighbouring source frames
+            double position = frame * step;
+            int index = (int) position;
+            int next = Math.min(index + 1, frames - 1);
+            double t = position - index;
+            for (int channel = 0; channel < CHANNELS; channel++) {
+                int from = Math.min(channel, channels - 1);
+                double a = samples[index * channels + from];
+                double b = samples[next * channels + from];
+                out[frame * CHANNELS + channel] = (short) Math.round(a + (b - a) * t);
+            }
         }
+        return out;
+    }
+
+    // Play sound once; overlapping plays of the same sound mix together
+    public void play(String name) {
+        submit(name, false);
     }
 
     // Loop sound
     public void loop(String name) {
-        Clip clip = soundClips.get(name);
-        if (clip != null) {
-            clip.loop(Clip.LOOP_CONTINUOUSLY);
-        }
+        submit(name, true);
     }
 
-    // Stop sound
+    // Stop every voice playing the sound
     public void stop(String name) {
-        Clip clip = soundClips.get(name);
-        if (clip != null && clip.isRunning()) {
-            clip.stop();
+        commands.add(new Command(name, null, null, false, true));
+    }
+
+    private void submit(String name, boolean loop) {
+        if (outputUnavailable) {
+            return;
         }
+        MusicStream.Source source = streams.get(name);
+        if (source != null) {
+            try {
+                commands.add(new Command(name, null, new MusicStream(source, loop), loop, false));
+            } catch (IOException e) {
+                System.err.println("Error streaming sound: " + name);
+                return;
+            }
+        } else {
+            short[] samples = sounds.get(name);
+            if (samples == null || samples.length == 0) {
+                return;
+            }
+            commands.add(new Command(name, samples, null, loop, false));
+        }
+        startMixer();
+    }
+
+    private synchronized void startMixer() {
+        if (mixerThread != null) {
+            return;
+        }
+        running = true;
+        mixerThread = new Thread(this::mixLoop, "sound-mixer");
+        mixerThread.setDaemon(true);
+        mixerThread.setPriority(Thread.MAX_PRIORITY);
+        mixerThread.start();
     }
 
     // Increase volume by 10%
@@ -57,12 +172,9 @@ public class SlotSoundManager {
         setGlobalVolume(currentVolume - 0.1f);
     }
 
-    // Set volume globally (clamped between 0 and 1)
+    // Set volume globally (clamped between 0 and 1); picked up by the next mixed block
     public void setGlobalVolume(float volume) {
         this.currentVolume = Math.max(0f, Math.min(volume, 1f));
-        for (Clip clip : soundClips.values()) {
-            applyVolume(clip);
-        }
     }
 
     // Get current volume (0.0 to 1.0)
@@ -70,25 +182,154 @@ public class SlotSoundManager {
         return currentVolume;
     }
 
-    // Apply current volume to a clip
-    private void applyVolume(Clip clip) {
+    private void mixLoop() {
+        SourceDataLine line;
+        try {
+            line = AudioSystem.getSourceDataLine(MIX_FORMAT);
+            line.open(MIX_FORMAT, LINE_BUFFER_FRAMES * MIX_FORMAT.getFrameSize());
+        } catch (LineUnavailableException | IllegalArgumentException e) {
+            System.err.println("No audio output available: " + e.getMessage());
+            outputUnavailable = true;
+            Command command;
+            while ((command = commands.poll()) != null) {
+                if (command.stream() != null) {
+                    command.stream().close();
+                }
+            }
+            return;
+        }
+        line.start();
+
+        int[] mix = new int[BLOCK_FRAMES * CHANNELS];
+        byte[] out = new byte[mix.length * 2];
+        float gain = currentVolume;
         try {
-            FloatControl gainControl = (FloatControl) clip.getControl(FloatControl.Type.MASTER_GAIN);
-            float dB = (float) (Math.log10(Math.max(currentVolume, 0.0001)) * 20); // Convert to decibels
-            float min = gainControl.getMinimum();
-            float max = gainControl.getMaximum();
-            dB = Math.max(min, Math.min(dB, max)); // Clamp dB to valid range
-            gainControl.setValue(dB);
-        } catch (IllegalArgumentException e) {
-            System.err.println("Volume control not supported for this clip.");
+            while (running) {
+                applyCommands();
+                // Ramp the gain across the block so volume changes do not click
+                float targetGain = currentVolume;
+                mixBlock(mix, gain, targetGain);
+                gain = targetGain;
+                for (int i = 0; i < mix.length; i++) {
+                    int sample = Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, mix[i]));
+                    out[2 * i] = (byte) sample;
+                    out[2 * i + 1] = (byte) (sample >> 8);
+                }
+                // Blocks while the line is full, which paces the loop
+                line.write(out, 0, out.length);
+            }
+        } finally {
+            line.drain();
+            line.close();
+        }
+    }
+
+    private void applyCommands() {
+        Command command;
+        while ((command = commands.poll()) != null) {
+            if (command.stop()) {
+                for (int v = 0; v < VOICES; v++) {
+                    if (command.name().equals(voiceNames[v])) {
+                        releaseVoice(v);
+                    }
+                }
+            } else {
+                int v = freeVoice();
+                releaseVoice(v);
+                voiceSamples[v] = command.samples();
+                voiceStreams[v] = command.stream();
+                voiceNames[v] = command.name();
+                voicePositions[v] = 0;
+                voiceLoops[v] = command.loop();
+                voiceStarts[v] = voiceCounter++;
+            }
+        }
+    }
+
+    private void releaseVoice(int v) {
+        if (voiceStreams[v] != null) {
+            voiceStreams[v].close();
+        }
+        voiceSamples[v] = null;
+        voiceStreams[v] = null;
+        voiceNames[v] = null;
+    }
+
+    // A free voice, or the oldest one-shot voice when all are busy
+    private int freeVoice() {
+        int oldest = -1;
+        for (int v = 0; v < VOICES; v++) {
+            if (voiceNames[v] == null) {
+                return v;
+            }
+            if (!voiceLoops[v] && (oldest < 0 || voiceStarts[v] < voiceStarts[oldest])) {
+                oldest = v;
+            }
+        }
+        return oldest >= 0 ? oldest : 0;
+    }
+
+    private void mixBlock(int[] mix, float fromGain, float toGain) {
+        Arrays.fill(mix, 0);
+        float gainStep = (toGain - fromGain) / BLOCK_FRAMES;
+        for (int v = 0; v < VOICES; v++) {
+            MusicStream stream = voiceStreams[v];
+            if (stream != null) {
+                stream.mixInto(mix, BLOCK_FRAMES, fromGain, gainStep);
+                if (stream.isDone()) {
+                    releaseVoice(v);
+                }
+                continue;
+            }
+            short[] samples = voiceSamples[v];
+            if (samples == null) {
+                continue;
+            }
+            int position = voicePositions[v];
+            float gain = fromGain;
+            for (int frame = 0; frame < BLOCK_FRAMES; frame++) {
+                if (position >= samples.length) {
+                    if (!voiceLoops[v]) {
+                        releaseVoice(v);
+                        break;
+                    }
+                    position = 0;
+                }
+                int i = frame * CHANNELS;
+                mix[i] += (int) (samples[position] * gain);
+                mix[i + 1] += (int) (samples[position + 1] * gain);
+                position += CHANNELS;
+                gain += gainStep;
+            }
+            voicePositions[v] = position;
         }
     }
 
     // Release resources
     public void cleanup() {
-        for (Clip clip : soundClips.values()) {
-            clip.close();
+        Thread thread;
+        synchronized (this) {
+            running = false;
+            thread = mixerThread;
+            mixerThread = null;
+        }
+        if (thread != null) {
+            try {
+                thread.join(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        for (int v = 0; v < VOICES; v++) {
+            releaseVoice(v);
+        }
+        Command command;
+        while ((command = commands.poll()) != null) {
+            if (command.stream() != null) {
+                command.stream().close();
+            }
         }
-        soundClips.clear();
+        sounds.clear();
+        streams.clear();
     }
 }
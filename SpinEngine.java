@@ -0,0 +1,238 @@
+import java.security.SecureRandom;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+
+/**
+ * Evaluates complete spins without any UI, sleeping or thread hops.
+ * The result holds every cascade step so a front end can replay it.
+ */
+public class SpinEngine {
+    // Grid dimensions
+    static final int ROWS = 5;
+    static final int COLS = 6;
+
+    // Game constants
+    static final int MIN_MATCHES = 8;
+    static final double MIN_MERMAID_CHANCE = 0.1;
+    static final double MAX_MERMAID_CHANCE = 1.0;
+    static final double MERMAID_MULTIPLIER_MIN = 2.0;
+    static final double MERMAID_MULTIPLIER_RANGE = 5.0;
+
+    // Symbol definitions with their probabilities and payouts
+    static final Symbol[] SYMBOLS = {
+        new Symbol("🐟", "Fish", 0.30, new double[]{0.25, 0.75, 2.00}),
+        new Symbol("🦀", "Crab", 0.30, new double[]{0.40, 0.90, 4.00}),
+        new Symbol("🐬", "Dolphin", 0.13, new double[]{0.50, 1.00, 5.00}),
+        new Symbol("🐚", "Shell", 0.12, new double[]{0.80, 1.20, 8.00}),
+        new Symbol("⚓", "Anchor", 0.11, new double[]{1.00, 1.50, 10.00}),
+        new Symbol("🔱", "Trident", 0.10, new double[]{1.50, 2.00, 12.00}),
+        new Symbol("💎", "Gem", 0.09, new double[]{2.00, 5.00, 15.00}),
+        new Symbol("🚢", "Ship", 0.08, new double[]{2.50, 10.00, 25.00}),
+        new Symbol("💰", "Treasure", 0.04, new double[]{10.00, 25.00, 50.00})
+    };
+
+    // Alias table compiled once from SYMBOLS; probabilities are normalized here
+    static final SymbolSampler SAMPLER = new SymbolSampler(SYMBOLS);
+    static final Paytable PAYTABLE = new Paytable(SYMBOLS, MIN_MATCHES);
+
+    /**
+     * Told about every spin settled, with how long its evaluation took. GameMetrics
+     * listens for the game and the server; simulations and benchmarks leave it unset.
+     */
+    @FunctionalInterface
+    public interface Listener {
+        void spinEvaluated(SpinResult result, long evaluationNanos);
+    }
+
+    private final RandomGenerator random;
+    private double mermaidChance = MIN_MERMAID_CHANCE;
+    private Listener listener; // Null unless someone is measuring
+
+    public SpinEngine(RandomGenerator random) {
+        this.random = random;
+    }
+
+    /**
+     * An engine whose every outcome follows from the seed. SplittableRandom is
+     * specified exactly, so a journaled seed replays the same spins on any JDK.
+     */
+    public static SpinEngine seeded(long seed) {
+        return new SpinEngine(new SplittableRandom(seed));
+    }
+
+    // A fresh unpredictable seed for a new session
+    public static long newSeed() {
+        return new SecureRandom().nextLong();
+    }
+
+    public double getMermaidChance() {
+        return mermaidChance;
+    }
+
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Debits the bet, evaluates a spin and credits all winnings to the given state,
+     * each cascade win and mermaid bonus as its own balance change.
+     * Returns null if the balance does not cover the bet.
+     */
+    public SpinResult spin(GameState gameState) {
+        long bet = gameState.tryDebitBet();
+        if (bet < 0) {
+            return null;
+        }
+        return settle(gameState, bet);
+    }
+
+    /**
+     * Evaluates a spin whose bet has already been debited, as by GameState.tryStartSpin(),
+     * and credits its winnings.
+     */
+    public SpinResult settle(GameState gameState, long bet) {
+        long start = listener == null ? 0L : System.nanoTime();
+        SpinResult result = evaluate(bet);
+        if (listener != null) {
+            listener.spinEvaluated(result, System.nanoTime() - start);
+        }
+        for (int i = 0; i < result.getStepCount(); i++) {
+            CascadeStep step = result.getStep(i);
+            gameState.updateBalance(step.getBaseWin(), WalletJournal.Kind.WIN);
+            if (step.getWin() != step.getBaseWin()) {
+                gameState.updateBalance(step.getWin() - step.getBaseWin(), WalletJournal.Kind.MERMAID);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Evaluates one spin including all cascades for the given bet in milli-credits.
+     * Only the mermaid chance is carried over to the next spin.
+     */
+    public SpinResult evaluate(long bet) {
+        return evaluate(bet, new SpinResult());
+    }
+
+    /**
+     * Evaluates one spin into the given result, overwriting whatever it held.
+     * Allocates nothing once the result has grown to the cascade depth reached.
+     */
+    public SpinResult evaluate(long bet, SpinResult result) {
+        result.reset(bet);
+        generateFinalGrid(result.nextStep().getGrid());
+        int consecutiveWinCount = 1;
+
+        while (true) {
+            CascadeStep step = result.nextStep();
+            SymbolGrid grid = step.getGrid();
+            int[] symbolCounts = step.getSymbolCounts();
+            countSymbols(grid, symbolCounts);
+            long matchedPositions = markMatchingPositions(grid, symbolCounts);
+            if (matchedPositions == 0L) {
+                updateMermaidChance(0.05); // Increase chance by 5% on loss
+                break;
+            }
+
+            long baseWin = calculateWinAmount(symbolCounts, bet);
+            long stepWin = baseWin;
+            double mermaidMultiplier = 0.0;
+
+            // Apply mermaid multiplier if triggered
+            if (random.nextDouble() < mermaidChance) {
+                mermaidMultiplier = MERMAID_MULTIPLIER_MIN + (random.nextDouble() * MERMAID_MULTIPLIER_RANGE);
+                stepWin = Math.round(stepWin * mermaidMultiplier);
+                updateMermaidChance(-0.9); // Reset chance after getting mermaid multiplier
+            } else if (consecutiveWinCount > 1) {
+                updateMermaidChance(0.1); // Increase chance by 10% on consecutive win without mermaid
+            }
+
+            SymbolGrid cascadedGrid = step.getCascadedGrid();
+            cascadedGrid.copyFrom(grid);
+            cascadeSymbols(cascadedGrid, matchedPositions);
+            step.record(matchedPositions, baseWin, stepWin, mermaidMultiplier, mermaidChance);
+            result.commitStep();
+            consecutiveWinCount++;
+        }
+
+        result.finish(mermaidChance);
+        return result;
+    }
+
+    /**
+     * Fills the given grid with the symbols of a fresh spin.
+     */
+    void generateFinalGrid(SymbolGrid grid) {
+        grid.clear();
+        for (int row = 0; row < ROWS; row++) {
+            for (int col = 0; col < COLS; col++) {
+                grid.place(SymbolGrid.bit(row, col), SAMPLER.sampleIndex(random));
+            }
+        }
+    }
+
+    /**
+     * Returns a random symbol based on their probabilities.
+     */
+    Symbol getRandomSymbol() {
+        return randomSymbol(random);
+    }
+
+    /**
+     * Draws a symbol from the given generator using the symbol probabilities.
+     */
+    static Symbol randomSymbol(RandomGenerator random) {
+        return SAMPLER.sample(random);
+    }
+
+    /**
+     * Counts occurrences of each symbol in the grid into the given array.
+     */
+    void countSymbols(SymbolGrid grid, int[] counts) {
+        for (int k = 0; k < SYMBOLS.length; k++) {
+            counts[k] = grid.count(k);
+        }
+    }
+
+    /**
+     * Returns the cells of every symbol with enough matches; zero means no win.
+     */
+    long markMatchingPositions(SymbolGrid grid, int[] symbolCounts) {
+        long matchedPositions = 0L;
+        for (int i = 0; i < SYMBOLS.length; i++) {
+            if (symbolCounts[i] >= MIN_MATCHES) {
+                matchedPositions |= grid.getMask(i);
+            }
+        }
+        return matchedPositions;
+    }
+
+    /**
+     * Calculates the total win amount in milli-credits for matched symbols.
+     */
+    long calculateWinAmount(int[] symbolCounts, long bet) {
+        long totalWin = 0L;
+        for (int i = 0; i < SYMBOLS.length; i++) {
+            totalWin += PAYTABLE.payout(i, symbolCounts[i], bet);
+        }
+        return totalWin;
+    }
+
+    /**
+     * Removes the matched cells, drops the survivors and refills the gaps from the top.
+     */
+    void cascadeSymbols(SymbolGrid grid, long matchedPositions) {
+        long empty = grid.collapse(matchedPositions);
+        // Fill empty spaces column by column, bottom-most gap first
+        for (int col = 0; col < COLS; col++) {
+            int gaps = Long.bitCount(SymbolGrid.columnBits(empty, col));
+            for (int row = gaps - 1; row >= 0; row--) {
+                grid.place(SymbolGrid.bit(row, col), SAMPLER.sampleIndex(random));
+            }
+        }
+    }
+
+    private void updateMermaidChance(double change) {
+        mermaidChance = Math.min(MAX_MERMAID_CHANCE, Math.max(MIN_MERMAID_CHANCE, mermaidChance + change));
+    }
+}
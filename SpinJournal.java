@@ -0,0 +1,444 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Append-only binary record of every spin played in one process, for all its sessions
+ * in one file. A session opens with its RNG seed and starting balance, then every bet
+ * change and every spin played is tagged with the session's number. Together with the
+ * seed this is enough for SpinReplay to re-derive each grid, cascade and payout; each
+ * spin also keeps its cascade count and a digest of its final grid, so the replay checks
+ * more than the total. A spin costs about ten bytes.
+ * <p>
+ * Recording only queues the bytes. One writer thread takes everything queued so far
+ * and writes it with a single call, then waits a moment so the next batch can gather;
+ * a crash loses at most that moment. The file is written but not synced: it is an
+ * audit trail, the balances themselves are in WalletJournal.
+ * <p>
+ * Layout, little-endian: magic "SPJ1", version byte and start time as a long. Then
+ * records of a tag byte and the session number, followed by unsigned LEB128 varints:
+ * OPEN seed as a fixed long, start balance and the session's name as length and UTF-8;
+ * BET coin value in milli-credits and multiplier; SPIN total win in milli-credits, step
+ * count and the grid digest as a fixed int; CLOSE nothing. Version 2 files have no step
+ * count or digest, and version 1 files hold a single session without session numbers.
+ */
+public class SpinJournal implements Closeable {
+    static final int MAGIC = 0x314A5053; // "SPJ1" read as a little-endian int
+    static final byte VERSION = 3;
+    static final int HEADER_BYTES = 4 + 1 + 8;
+    static final byte TAG_BET = 1;
+    static final byte TAG_SPIN = 2;
+    static final byte TAG_OPEN = 3;
+    static final byte TAG_CLOSE = 4;
+
+    // Where the game and the server keep their journals
+    static final Path DIRECTORY = Path.of("journals");
+
+    private static final int MAX_NAME_BYTES = 256;
+    private static final int MAX_BATCH = 8192;
+    private static final long IDLE_POLL_MILLIS = 200;
+    // Pause after each write so records from many spins go out together
+    private static final long GATHER_MILLIS = 20;
+
+    private final Path file;
+    private final FileChannel channel;
+    private final LinkedBlockingQueue<byte[]> queue = new LinkedBlockingQueue<>();
+    private final AtomicInteger nextSession = new AtomicInteger();
+    private final Thread writer;
+    private ByteBuffer batchBuffer = ByteBuffer.allocateDirect(64 * 1024);
+    private volatile boolean running = true;
+    private volatile boolean failed;
+
+    private SpinJournal(Path file, FileChannel channel) {
+        this.file = file;
+        this.channel = channel;
+        this.writer = new Thread(this::writeLoop, "spin-journal");
+        writer.setDaemon(true);
+    }
+
+    /**
+     * Creates a new journal file named after the prefix and the current time.
+     */
+    public static SpinJournal create(String prefix) throws IOException {
+        Files.createDirectories(DIRECTORY);
+        long now = System.currentTimeMillis();
+        Path file = DIRECTORY.resolve(prefix + "-" + now + ".spj");
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC).put(VERSION).putLong(now).flip();
+            while (header.hasRemaining()) {
+                channel.write(header);
+            }
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        SpinJournal journal = new SpinJournal(file, channel);
+        journal.writer.start();
+        return journal;
+    }
+
+    /**
+     * Like create(), but reports a failure instead of throwing so a read-only disk
+     * never stops the desktop game. Returns null in that case.
+     */
+    public static SpinJournal createOrNull(String prefix) {
+        try {
+            return create(prefix);
+        } catch (IOException e) {
+            System.err.println("Spin journal disabled: " + e.getMessage());
+            return null;
+        }
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Starts a session in the journal. Its spins are recorded through the returned handle.
+     */
+    public Session openSession(String name, long seed, long startBalance) {
+        byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+        if (nameBytes.length > MAX_NAME_BYTES) {
+            throw new IllegalArgumentException("Session name too long");
+        }
+        Session session = new Session(nextSession.getAndIncrement());
+        byte[] record = new byte[1 + 5 + 8 + 10 + 5 + nameBytes.length];
+        int length = session.putHeader(record, TAG_OPEN);
+        ByteBuffer.wrap(record, length, 8).order(ByteOrder.LITTLE_ENDIAN).putLong(seed);
+        length += 8;
+        length = putVarint(record, length, startBalance);
+        length = putVarint(record, length, nameBytes.length);
+        System.arraycopy(nameBytes, 0, record, length, nameBytes.length);
+        append(Arrays.copyOf(record, length + nameBytes.length));
+        return session;
+    }
+
+    private void append(byte[] record) {
+        if (!failed) {
+            queue.add(record);
+        }
+    }
+
+    private void writeLoop() {
+        List<byte[]> batch = new ArrayList<>(MAX_BATCH);
+        while (running || !queue.isEmpty()) {
+            try {
+                byte[] first = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, MAX_BATCH - 1);
+                if (!failed) {
+                    writeBatch(batch);
+                }
+                if (running) {
+                    TimeUnit.MILLISECONDS.sleep(GATHER_MILLIS);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (IOException e) {
+                System.err.println("Spin journal " + file + " stopped: " + e.getMessage());
+                failed = true;
+                queue.clear();
+            }
+            batch.clear();
+        }
+    }
+
+    // One write for the whole batch
+    private void writeBatch(List<byte[]> batch) throws IOException {
+        int size = 0;
+        for (byte[] record : batch) {
+            size += record.length;
+        }
+        if (batchBuffer.capacity() < size) {
+            batchBuffer = ByteBuffer.allocateDirect(Math.max(batchBuffer.capacity() * 2, size));
+        }
+        batchBuffer.clear();
+        for (byte[] record : batch) {
+            batchBuffer.put(record);
+        }
+        batchBuffer.flip();
+        while (batchBuffer.hasRemaining()) {
+            channel.write(batchBuffer);
+        }
+    }
+
+    /**
+     * Hash of the spin's final grid, one mask per symbol. Two spins that pay the same
+     * through different cascades almost never end on the same grid.
+     */
+    static int digest(SpinResult result) {
+        SymbolGrid grid = result.getFinalGrid();
+        long hash = 0L;
+        for (int k = 0; k < SpinEngine.SYMBOLS.length; k++) {
+            hash = (hash + grid.getMask(k)) * 0x9E3779B97F4A7C15L;
+        }
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+    private static int putVarint(byte[] buffer, int position, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[position++] = (byte) value;
+        return position;
+    }
+
+    // Writes everything queued, then stops the writer. It is not interrupted, since an
+    // interrupt would close the channel in the middle of a write.
+    @Override
+    public void close() {
+        running = false;
+        try {
+            writer.join(5000);
+            if (writer.isAlive()) {
+                System.err.println("Spin journal " + file + " still writing; left open");
+                return;
+            }
+            channel.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            System.err.println("Error closing spin journal " + file + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * One session's view of the journal. A session records one spin at a time, which
+     * callers guarantee anyway; different sessions may record concurrently.
+     */
+    public class Session {
+        private final int number;
+        // Room for a BET and a SPIN record
+        private final byte[] record = new byte[2 * (1 + 5) + 10 + 5 + 10 + 5 + 4];
+        private long coinValue = -1L;
+        private int betMultiplier = -1;
+
+        private Session(int number) {
+            this.number = number;
+        }
+
+        int getNumber() {
+            return number;
+        }
+
+        private int putHeader(byte[] buffer, byte tag) {
+            buffer[0] = tag;
+            return putVarint(buffer, 1, number);
+        }
+
+        /**
+         * Records one settled spin, preceded by a bet record if the bet changed since
+         * the session's last spin.
+         */
+        public void recordSpin(long coinValueMillis, int multiplier, SpinResult result) {
+            int length = 0;
+            if (coinValueMillis != coinValue || multiplier != betMultiplier) {
+                coinValue = coinValueMillis;
+                betMultiplier = multiplier;
+                length = putHeader(record, TAG_BET);
+                length = putVarint(record, length, coinValueMillis);
+                length = putVarint(record, length, multiplier);
+            }
+            record[length++] = TAG_SPIN;
+            length = putVarint(record, length, number);
+            length = putVarint(record, length, result.getTotalWin());
+            length = putVarint(record, length, result.getStepCount());
+            ByteBuffer.wrap(record, length, 4).order(ByteOrder.LITTLE_ENDIAN).putInt(digest(result));
+            append(Arrays.copyOf(record, length + 4));
+        }
+
+        /**
+         * Marks the end of the session, so a replay knows it is complete.
+         */
+        public void close() {
+            append(Arrays.copyOf(record, putHeader(record, TAG_CLOSE)));
+        }
+    }
+
+    /**
+     * Sequential reader over a journal file. The file is mapped, so reading does not
+     * copy it onto the heap. A record cut short by a crash reads as the end of the file.
+     */
+    static class Reader implements Closeable {
+        private final FileChannel channel;
+        private final MappedByteBuffer data;
+        private final byte version;
+        private final long startTime;
+        private int session;
+        private long seed;
+        private long startBalance;
+        private String name;
+        private long coinValue;
+        private int betMultiplier;
+        private long win;
+        private int steps;
+        private int digest;
+        private boolean truncated;
+        private boolean pendingOpen;
+
+        Reader(Path file) throws IOException {
+            channel = FileChannel.open(file, StandardOpenOption.READ);
+            try {
+                data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                data.order(ByteOrder.LITTLE_ENDIAN);
+                if (data.remaining() < HEADER_BYTES || data.getInt() != MAGIC) {
+                    throw new IOException("Not a spin journal: " + file);
+                }
+                version = data.get();
+                if (version == 1) {
+                    // One session whose seed and balance sit in the header; reported as an OPEN record
+                    seed = data.getLong();
+                    startBalance = data.getLong();
+                    name = file.getFileName().toString();
+                    pendingOpen = true;
+                } else if (version < 1 || version > VERSION) {
+                    throw new IOException("Unsupported spin journal version " + version + ": " + file);
+                }
+                startTime = data.getLong();
+            } catch (IOException | RuntimeException e) {
+                channel.close();
+                throw e;
+            }
+        }
+
+        long getStartTime() {
+            return startTime;
+        }
+
+        /**
+         * Advances to the next record and returns its tag, or 0 at the end of the journal.
+         */
+        byte next() throws IOException {
+            if (pendingOpen) {
+                pendingOpen = false;
+                return TAG_OPEN;
+            }
+            if (!data.hasRemaining()) {
+                return 0;
+            }
+            int start = data.position();
+            byte tag = data.get();
+            try {
+                session = version == 1 ? 0 : (int) getVarint();
+                switch (tag) {
+                    case TAG_OPEN -> {
+                        seed = data.getLong();
+                        startBalance = getVarint();
+                        byte[] bytes = new byte[(int) getVarint()];
+                        data.get(bytes);
+                        name = new String(bytes, StandardCharsets.UTF_8);
+                    }
+                    case TAG_BET -> {
+                        long coin = getVarint();
+                        long multiplier = getVarint();
+                        coinValue = coin;
+                        betMultiplier = (int) multiplier;
+                    }
+                    case TAG_SPIN -> {
+                        win = getVarint();
+                        if (hasDigests()) {
+                            steps = (int) getVarint();
+                            digest = data.getInt();
+                        }
+                    }
+                    case TAG_CLOSE -> {
+                    }
+                    default -> throw new IOException("Unknown record tag " + tag + " at offset " + start);
+                }
+                return tag;
+            } catch (BufferUnderflowException e) {
+                truncated = true;
+                data.position(data.limit());
+                return 0;
+            }
+        }
+
+        private long getVarint() {
+            long value = 0L;
+            for (int shift = 0; ; shift += 7) {
+                byte b = data.get();
+                value |= (long) (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+            }
+        }
+
+        // Session number of the current record
+        int getSession() {
+            return session;
+        }
+
+        // Set by an OPEN record
+        long getSeed() {
+            return seed;
+        }
+
+        long getStartBalance() {
+            return startBalance;
+        }
+
+        String getName() {
+            return name;
+        }
+
+        // Set by a BET record
+        long getCoinValue() {
+            return coinValue;
+        }
+
+        int getBetMultiplier() {
+            return betMultiplier;
+        }
+
+        // Total win of a SPIN record
+        long getWin() {
+            return win;
+        }
+
+        // Step count and grid digest of a SPIN record; only journals from version 3 on have them
+        boolean hasDigests() {
+            return version >= 3;
+        }
+
+        int getSteps() {
+            return steps;
+        }
+
+        int getDigest() {
+            return digest;
+        }
+
+        // True if the journal ended in the middle of a record
+        boolean isTruncated() {
+            return truncated;
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
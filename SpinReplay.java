@@ -0,0 +1,176 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Command-line replay of spin journals. Every spin is evaluated again from its session's
+ * seed and compared with the recorded win, cascade count and final-grid digest, so
+ * engine changes can be checked against played history. Journals older than version 3
+ * carry no digest; only their totals are compared. A journal's records are first split by session, then journals and
+ * the sessions in them are replayed in parallel, each session on its own engine.
+ * Usage: java SpinReplay [journal files or directories...]
+ * Exits with status 1 if any spin differs or a journal cannot be read.
+ */
+public class SpinReplay {
+    // Mismatches printed per session before the rest are only counted
+    private static final int MAX_REPORTED = 10;
+
+    public static void main(String[] args) throws IOException {
+        List<Path> files = new ArrayList<>();
+        for (String arg : args.length > 0 ? args : new String[]{SpinJournal.DIRECTORY.toString()}) {
+            collect(Path.of(arg), files);
+        }
+
+        long start = System.nanoTime();
+        List<Outcome> outcomes = files.parallelStream().map(SpinReplay::replay).toList();
+        long elapsed = System.nanoTime() - start;
+
+        long spins = 0L;
+        long mismatches = 0L;
+        int failures = 0;
+        for (Outcome outcome : outcomes) {
+            System.out.print(outcome.report());
+            spins += outcome.spins();
+            mismatches += outcome.mismatches();
+            if (outcome.error() != null) {
+                failures++;
+            }
+        }
+        System.out.printf("%nReplayed %,d spins from %d journals in %.2fs (%,.0f spins/s)%n",
+                spins, files.size(), elapsed / 1e9, spins / Math.max(elapsed / 1e9, 1e-9));
+        System.out.printf("Mismatches: %,d, unreadable journals: %d%n", mismatches, failures);
+        if (mismatches > 0 || failures > 0) {
+            System.exit(1);
+        }
+    }
+
+    private static void collect(Path path, List<Path> files) throws IOException {
+        if (!Files.isDirectory(path)) {
+            files.add(path);
+            return;
+        }
+        try (Stream<Path> entries = Files.list(path)) {
+            entries.filter(p -> p.toString().endsWith(".spj")).sorted().forEach(files::add);
+        }
+    }
+
+    private record Outcome(Path file, int sessions, long spins, long mismatches, boolean truncated,
+                           String details, String error) {
+        String report() {
+            StringBuilder report = new StringBuilder();
+            report.append(file).append(": ");
+            if (error != null) {
+                return report.append("ERROR ").append(error).append('\n').toString();
+            }
+            report.append(String.format("%,d spins in %,d sessions, %s%s%n", spins, sessions,
+                    mismatches == 0 ? "OK" : String.format("%,d MISMATCHES", mismatches),
+                    truncated ? " (last record truncated)" : ""));
+            return report.append(details).toString();
+        }
+    }
+
+    /**
+     * Reads one journal, then replays each of its sessions on a fresh engine seeded as
+     * the session was.
+     */
+    static Outcome replay(Path file) {
+        Map<Integer, SessionLog> sessions = new LinkedHashMap<>();
+        boolean truncated;
+        try (SpinJournal.Reader reader = new SpinJournal.Reader(file)) {
+            for (byte tag; (tag = reader.next()) != 0; ) {
+                if (tag == SpinJournal.TAG_OPEN) {
+                    sessions.put(reader.getSession(), new SessionLog(reader.getName(), reader.getSeed(), reader.hasDigests()));
+                    continue;
+                }
+                SessionLog session = sessions.get(reader.getSession());
+                if (session == null) {
+                    throw new IOException("Record for session " + reader.getSession() + " before it was opened");
+                }
+                if (tag == SpinJournal.TAG_BET) {
+                    session.bet = reader.getCoinValue() * reader.getBetMultiplier();
+                } else if (tag == SpinJournal.TAG_SPIN) {
+                    session.add(reader.getWin(), reader.getSteps(), reader.getDigest());
+                }
+            }
+            truncated = reader.isTruncated();
+        } catch (IOException e) {
+            return new Outcome(file, 0, 0L, 0L, false, "", e.getMessage());
+        }
+
+        List<SessionLog> replayed = sessions.values().parallelStream().map(SessionLog::replay).toList();
+        StringBuilder details = new StringBuilder();
+        long spins = 0L;
+        long mismatches = 0L;
+        for (SessionLog session : replayed) {
+            spins += session.spins;
+            mismatches += session.mismatches;
+            details.append(session.details);
+        }
+        return new Outcome(file, sessions.size(), spins, mismatches, truncated, details.toString(), null);
+    }
+
+    /**
+     * The spins of one session as read from the journal, and the result of replaying them.
+     */
+    private static final class SessionLog {
+        private final String name;
+        private final long seed;
+        private final boolean digests;
+        private long bet; // Of the spins recorded next, in milli-credits
+        private long[] bets = new long[16];
+        private long[] wins = new long[16];
+        private int[] steps = new int[16];
+        private int[] grids = new int[16];
+        private int spins;
+        private long mismatches;
+        private final StringBuilder details = new StringBuilder();
+
+        SessionLog(String name, long seed, boolean digests) {
+            this.name = name;
+            this.seed = seed;
+            this.digests = digests;
+        }
+
+        void add(long win, int stepCount, int digest) {
+            if (spins == bets.length) {
+                bets = Arrays.copyOf(bets, spins * 2);
+                wins = Arrays.copyOf(wins, spins * 2);
+                steps = Arrays.copyOf(steps, spins * 2);
+                grids = Arrays.copyOf(grids, spins * 2);
+            }
+            bets[spins] = bet;
+            wins[spins] = win;
+            steps[spins] = stepCount;
+            grids[spins] = digest;
+            spins++;
+        }
+
+        // Same total, and for journals with digests the same cascades and final grid
+        private boolean matches(int spin, SpinResult result) {
+            return result.getTotalWin() == wins[spin] && (!digests
+                    || (result.getStepCount() == steps[spin] && SpinJournal.digest(result) == grids[spin]));
+        }
+
+        SessionLog replay() {
+            SpinEngine engine = SpinEngine.seeded(seed);
+            SpinResult result = new SpinResult();
+            for (int spin = 0; spin < spins; spin++) {
+                engine.evaluate(bets[spin], result);
+                if (!matches(spin, result) && mismatches++ < MAX_REPORTED) {
+                    details.append(String.format("  %s spin %d: bet %.2f, recorded win %.3f%s, replayed %.3f in %d steps%s%n",
+                            name, spin, Paytable.toCredits(bets[spin]), Paytable.toCredits(wins[spin]),
+                            digests ? " in " + steps[spin] + " steps" : "",
+                            Paytable.toCredits(result.getTotalWin()), result.getStepCount(),
+                            digests && SpinJournal.digest(result) != grids[spin] ? ", final grid differs" : ""));
+                }
+            }
+            return this;
+        }
+    }
+}
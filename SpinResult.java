@@ -0,0 +1,95 @@
+import java.util.Arrays;
+
+/**
+ * Complete outcome of one spin as produced by {@link SpinEngine}.
+ * Grids and steps are pooled, so a result can be handed back to the engine
+ * and refilled without allocating once it has grown to the deepest cascade seen.
+ */
+public class SpinResult {
+    private static final int INITIAL_CAPACITY = 8;
+
+    private long bet;
+    private SymbolGrid[] grids = new SymbolGrid[0]; // grids[i] is evaluated by step i
+    private CascadeStep[] steps = new CascadeStep[0];
+    private int stepCount;
+    private long totalWin;
+    private double mermaidChance;
+
+    public SpinResult() {
+        ensureCapacity(INITIAL_CAPACITY);
+    }
+
+    void reset(long bet) {
+        this.bet = bet;
+        this.stepCount = 0;
+        this.totalWin = 0L;
+    }
+
+    /**
+     * Returns the pooled step that would follow the committed ones.
+     * Its grid is the one the previous step cascaded into.
+     */
+    CascadeStep nextStep() {
+        ensureCapacity(stepCount + 1);
+        return steps[stepCount];
+    }
+
+    void commitStep() {
+        totalWin += steps[stepCount].getWin();
+        stepCount++;
+    }
+
+    void finish(double mermaidChance) {
+        this.mermaidChance = mermaidChance;
+    }
+
+    private void ensureCapacity(int stepCapacity) {
+        if (steps.length >= stepCapacity) {
+            return;
+        }
+        int oldSteps = steps.length;
+        int newSteps = Math.max(stepCapacity, oldSteps * 2);
+        grids = Arrays.copyOf(grids, newSteps + 1);
+        steps = Arrays.copyOf(steps, newSteps);
+        for (int i = oldSteps == 0 ? 0 : oldSteps + 1; i <= newSteps; i++) {
+            grids[i] = new SymbolGrid(SpinEngine.SYMBOLS.length);
+        }
+        for (int i = oldSteps; i < newSteps; i++) {
+            steps[i] = new CascadeStep(grids[i], grids[i + 1], new int[SpinEngine.SYMBOLS.length]);
+        }
+    }
+
+    // Bet in milli-credits
+    public long getBet() {
+        return bet;
+    }
+
+    public SymbolGrid getInitialGrid() {
+        return grids[0];
+    }
+
+    public int getStepCount() {
+        return stepCount;
+    }
+
+    public CascadeStep getStep(int index) {
+        if (index >= stepCount) {
+            throw new IndexOutOfBoundsException("Step " + index + " of " + stepCount);
+        }
+        return steps[index];
+    }
+
+    public SymbolGrid getFinalGrid() {
+        return grids[stepCount];
+    }
+
+    // Total payout in milli-credits
+    public long getTotalWin() {
+        return totalWin;
+    }
+
+    // Mermaid chance carried into the next spin
+    public double getMermaidChance() {
+        return mermaidChance;
+    }
+}
@@ -0,0 +1,88 @@
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.GraphicsEnvironment;
+import java.awt.RenderingHints;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.util.HashMap;
+import java.util.Map;
+import javax.swing.ImageIcon;
+
+/**
+ * Sprites of every reel symbol at every animation scale, rendered once at startup.
+ * Reel cells blit these images instead of laying out emoji text, so scaling a
+ * symbol during a win animation never touches font rasterization.
+ */
+public class SymbolAtlas {
+    // Scale steps in percent used by the win animation
+    static final int SCALE_MIN = 70;
+    static final int SCALE_MAX = 130;
+    static final int SCALE_STEP = 10;
+    static final int NORMAL_SCALE = 100;
+    private static final int SCALES = (SCALE_MAX - SCALE_MIN) / SCALE_STEP + 1;
+
+    // Shown on the reels before the first spin
+    static final String PLACEHOLDER = "🌊";
+
+    private final Map<String, ImageIcon[]> sprites = new HashMap<>();
+
+    public SymbolAtlas(Font baseFont) {
+        GraphicsConfiguration config = GraphicsEnvironment.isHeadless() ? null
+                : GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice().getDefaultConfiguration();
+        for (Symbol symbol : SpinEngine.SYMBOLS) {
+            sprites.put(symbol.getEmoji(), renderScales(symbol.getEmoji(), baseFont, config));
+        }
+        sprites.put(PLACEHOLDER, renderScales(PLACEHOLDER, baseFont, config));
+    }
+
+    private static ImageIcon[] renderScales(String emoji, Font baseFont, GraphicsConfiguration config) {
+        ImageIcon[] icons = new ImageIcon[SCALES];
+        for (int i = 0; i < SCALES; i++) {
+            int scale = SCALE_MIN + i * SCALE_STEP;
+            icons[i] = new ImageIcon(render(emoji, baseFont.deriveFont(baseFont.getSize2D() * scale / 100f), config));
+        }
+        return icons;
+    }
+
+    private static BufferedImage render(String emoji, Font font, GraphicsConfiguration config) {
+        // Measure on a scratch image, then draw into one sized to the glyph
+        BufferedImage scratch = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D measure = scratch.createGraphics();
+        FontMetrics metrics = measure.getFontMetrics(font);
+        int width = Math.max(1, metrics.stringWidth(emoji));
+        int height = Math.max(1, metrics.getHeight());
+        measure.dispose();
+
+        BufferedImage image = config == null
+                ? new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB)
+                : config.createCompatibleImage(width, height, Transparency.TRANSLUCENT);
+        Graphics2D g = image.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+        g.setFont(font);
+        g.setColor(Color.BLACK);
+        g.drawString(emoji, 0, metrics.getAscent());
+        g.dispose();
+        return image;
+    }
+
+    /**
+     * Returns the sprite for an emoji at the nearest scale step, or null for an empty cell.
+     */
+    public ImageIcon getIcon(String emoji, int scale) {
+        ImageIcon[] icons = sprites.get(emoji);
+        if (icons == null) {
+            return null;
+        }
+        int clamped = Math.max(SCALE_MIN, Math.min(SCALE_MAX, scale));
+        return icons[(clamped - SCALE_MIN + SCALE_STEP / 2) / SCALE_STEP];
+    }
+
+    public BufferedImage getImage(String emoji, int scale) {
+        ImageIcon icon = getIcon(emoji, scale);
+        return icon == null ? null : (BufferedImage) icon.getImage();
+    }
+}
@@ -0,0 +1,129 @@
+import java.util.Arrays;
+
+/**
+ * The 5x6 reel grid stored as one 30-bit mask per symbol.
+ * Cell (row, col) is bit col * ROWS + row, so each column is a contiguous
+ * run of ROWS bits with row 0 (the top) in the lowest bit.
+ */
+public class SymbolGrid {
+    static final int ROWS = SpinEngine.ROWS;
+    static final int COLS = SpinEngine.COLS;
+    static final int CELLS = ROWS * COLS;
+    static final long ALL_CELLS = (1L << CELLS) - 1;
+    private static final long COLUMN_MASK = (1L << ROWS) - 1;
+
+    private final long[] masks;
+
+    public SymbolGrid(int symbolCount) {
+        this.masks = new long[symbolCount];
+    }
+
+    /**
+     * Returns the bit for the given cell.
+     */
+    static long bit(int row, int col) {
+        return 1L << (col * ROWS + row);
+    }
+
+    // Bits of one column, shifted down so row 0 is bit 0
+    static long columnBits(long cells, int col) {
+        return (cells >>> (col * ROWS)) & COLUMN_MASK;
+    }
+
+    public void set(int row, int col, int symbolIndex) {
+        long cell = bit(row, col);
+        for (int i = 0; i < masks.length; i++) {
+            masks[i] &= ~cell;
+        }
+        masks[symbolIndex] |= cell;
+    }
+
+    // Puts a symbol into a cell that is known to be empty
+    void place(long cell, int symbolIndex) {
+        masks[symbolIndex] |= cell;
+    }
+
+    /**
+     * Returns the symbol index at the given cell, or -1 if it is empty.
+     */
+    public int symbolAt(int row, int col) {
+        long cell = bit(row, col);
+        for (int i = 0; i < masks.length; i++) {
+            if ((masks[i] & cell) != 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public long getMask(int symbolIndex) {
+        return masks[symbolIndex];
+    }
+
+    public int count(int symbolIndex) {
+        return Long.bitCount(masks[symbolIndex]);
+    }
+
+    // Every cell that currently holds a symbol
+    public long occupied() {
+        long occupied = 0L;
+        for (long mask : masks) {
+            occupied |= mask;
+        }
+        return occupied;
+    }
+
+    void clear() {
+        Arrays.fill(masks, 0L);
+    }
+
+    void copyFrom(SymbolGrid other) {
+        System.arraycopy(other.masks, 0, masks, 0, masks.length);
+    }
+
+    public SymbolGrid copy() {
+        SymbolGrid copy = new SymbolGrid(masks.length);
+        copy.copyFrom(this);
+        return copy;
+    }
+
+    /**
+     * Removes the given cells and lets everything above them fall down.
+     * Only columns that lost a cell are touched; the freed cells end up at the
+     * top of each column. Returns the empty cells after the collapse.
+     */
+    long collapse(long removed) {
+        long empty = 0L;
+        for (int col = 0; col < COLS; col++) {
+            int shift = col * ROWS;
+            long removedInColumn = columnBits(removed, col);
+            if (removedInColumn == 0) {
+                continue;
+            }
+            long keep = ~removedInColumn & COLUMN_MASK;
+            int drop = Long.bitCount(removedInColumn);
+            for (int i = 0; i < masks.length; i++) {
+                long column = (masks[i] >>> shift) & COLUMN_MASK;
+                // Pack survivors into the low (top) bits, then push them to the bottom rows
+                long fallen = Long.compress(column, keep) << drop;
+                masks[i] = (masks[i] & ~(COLUMN_MASK << shift)) | (fallen << shift);
+            }
+            empty |= ((1L << drop) - 1) << shift;
+        }
+        return empty;
+    }
+
+    /**
+     * Renders the grid as emoji for the UI; empty cells become "".
+     */
+    public String[][] toEmojiGrid() {
+        String[][] grid = new String[ROWS][COLS];
+        for (int row = 0; row < ROWS; row++) {
+            for (int col = 0; col < COLS; col++) {
+                int symbol = symbolAt(row, col);
+                grid[row][col] = symbol < 0 ? "" : SpinEngine.SYMBOLS[symbol].getEmoji();
+            }
+        }
+        return grid;
+    }
+}
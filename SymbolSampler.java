@@ -0,0 +1,105 @@
+import java.util.random.RandomGenerator;
+
+/**
+ * Walker/Vose alias table over a symbol table.
+ * Built once; every draw costs one random number and one table lookup.
+ */
+public class SymbolSampler {
+    private final Symbol[] symbols;
+    private final double[] normalized;
+    private final double[] threshold;
+    private final int[] alias;
+
+    /**
+     * Builds the alias table from the symbol probabilities, normalizing them to sum to 1.
+     * Throws IllegalArgumentException if any weight is negative or not finite, or all are zero.
+     */
+    public SymbolSampler(Symbol[] symbols) {
+        int n = symbols.length;
+        if (n == 0) {
+            throw new IllegalArgumentException("Symbol table is empty");
+        }
+
+        double total = 0.0;
+        for (Symbol symbol : symbols) {
+            double weight = symbol.getProbability();
+            if (!(weight >= 0.0) || Double.isInfinite(weight)) {
+                throw new IllegalArgumentException("Invalid probability for " + symbol.getName() + ": " + weight);
+            }
+            total += weight;
+        }
+        if (total <= 0.0) {
+            throw new IllegalArgumentException("Symbol probabilities sum to zero");
+        }
+
+        this.symbols = symbols.clone();
+        this.normalized = new double[n];
+        this.threshold = new double[n];
+        this.alias = new int[n];
+
+        // Scale so the average column holds exactly 1.0
+        double[] scaled = new double[n];
+        int[] small = new int[n];
+        int[] large = new int[n];
+        int smallCount = 0;
+        int largeCount = 0;
+        for (int i = 0; i < n; i++) {
+            normalized[i] = symbols[i].getProbability() / total;
+            scaled[i] = normalized[i] * n;
+            if (scaled[i] < 1.0) {
+                small[smallCount++] = i;
+            } else {
+                large[largeCount++] = i;
+            }
+        }
+
+        // Pair each under-full column with an over-full donor
+        while (smallCount > 0 && largeCount > 0) {
+            int less = small[--smallCount];
+            int more = large[--largeCount];
+            threshold[less] = scaled[less];
+            alias[less] = more;
+            scaled[more] = (scaled[more] + scaled[less]) - 1.0;
+            if (scaled[more] < 1.0) {
+                small[smallCount++] = more;
+            } else {
+                large[largeCount++] = more;
+            }
+        }
+
+        // Whatever is left is full up to rounding error
+        while (largeCount > 0) {
+            int index = large[--largeCount];
+            threshold[index] = 1.0;
+            alias[index] = index;
+        }
+        while (smallCount > 0) {
+            int index = small[--smallCount];
+            threshold[index] = 1.0;
+            alias[index] = index;
+        }
+    }
+
+    /**
+     * Returns the index of a symbol drawn from the table.
+     * The integer part of the scaled draw picks a column, the fraction decides column or alias.
+     */
+    public int sampleIndex(RandomGenerator random) {
+        double scaled = random.nextDouble() * threshold.length;
+        int column = (int) scaled;
+        return (scaled - column) < threshold[column] ? column : alias[column];
+    }
+
+    public Symbol sample(RandomGenerator random) {
+        return symbols[sampleIndex(random)];
+    }
+
+    // Probability of drawing the symbol at the given index after normalization
+    public double getProbability(int index) {
+        return normalized[index];
+    }
+
+    public int size() {
+        return symbols.length;
+    }
+}
@@ -0,0 +1,358 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Write-ahead journal of wallet balance changes. record() only queues the change and
+ * returns. One writer thread takes everything queued so far, writes it with a single
+ * FileChannel write and syncs once. While it waits on that sync, new changes pile up
+ * and go out together in the next batch. A spin's debit and wins therefore usually
+ * cost one sync together, and the spinning thread never waits for the disk.
+ * <p>
+ * Every few thousand records the writer saves a snapshot of all balances and starts a
+ * new journal segment. Opening loads the snapshot and replays only the segments after
+ * it. Records carry a CRC, and a record torn by a crash ends the replay.
+ * <p>
+ * If a write fails the journal stops recording and isFailed() turns true; GameState
+ * then refuses new spins rather than play for a balance that is no longer saved.
+ */
+public class WalletJournal implements AutoCloseable {
+    static final Path DIRECTORY = Path.of("wallets");
+
+    public enum Kind {
+        OPEN, BET, WIN, MERMAID, ADJUST
+    }
+
+    private static final String SNAPSHOT_NAME = "wallet.snapshot";
+    private static final String SEGMENT_PREFIX = "wallet-";
+    private static final String SEGMENT_SUFFIX = ".wal";
+    private static final int SNAPSHOT_MAGIC = 0x57414C53; // "WALS"
+
+    // Record: payload length, CRC, then sequence, kind, delta, account name
+    private static final int RECORD_HEADER = 8;
+    private static final int PAYLOAD_FIXED = 8 + 1 + 8 + 2;
+    private static final int MAX_NAME_BYTES = 1024;
+    private static final int MAX_BATCH = 4096;
+    private static final int SNAPSHOT_EVERY = 50_000;
+    private static final long IDLE_POLL_MILLIS = 200;
+
+    private record Entry(byte[] account, Kind kind, long delta, CompletableFuture<Void> synced) {
+    }
+
+    private final Path directory;
+    private final LinkedBlockingQueue<Entry> queue = new LinkedBlockingQueue<>();
+    // Balances including changes still queued; read by openWallet
+    private final Map<String, Long> balances = new ConcurrentHashMap<>();
+    // Balances as of the last synced record; only touched by the writer
+    private final Map<String, Long> durable = new HashMap<>();
+    private final Thread writer;
+    private final CRC32C crc = new CRC32C();
+    private ByteBuffer batchBuffer = ByteBuffer.allocateDirect(64 * 1024);
+    private FileChannel segment;
+    private long segmentPosition;
+    private long nextSequence;
+    private long recordsSinceSnapshot;
+    private volatile boolean running = true;
+    private volatile boolean failed;
+
+    private WalletJournal(Path directory) {
+        this.directory = directory;
+        this.writer = new Thread(this::writeLoop, "wallet-journal");
+        writer.setDaemon(true);
+    }
+
+    /**
+     * Opens the journal in the given directory, rebuilding balances from the latest
+     * snapshot and the journal written after it.
+     */
+    public static WalletJournal open(Path directory) throws IOException {
+        WalletJournal journal = new WalletJournal(directory);
+        journal.recover();
+        journal.writer.start();
+        return journal;
+    }
+
+    /**
+     * Returns the account's balance, creating the wallet with the given balance if it is new.
+     */
+    public long openWallet(String account, long initialBalance) {
+        Long existing = balances.get(account);
+        if (existing != null) {
+            return existing;
+        }
+        record(account, Kind.OPEN, initialBalance);
+        return initialBalance;
+    }
+
+    /**
+     * Queues a balance change. It is applied at once and reaches the disk with the next batch.
+     */
+    public void record(String account, Kind kind, long delta) {
+        byte[] name = account.getBytes(StandardCharsets.UTF_8);
+        if (name.length > MAX_NAME_BYTES) {
+            throw new IllegalArgumentException("Account name too long");
+        }
+        balances.merge(account, delta, Long::sum);
+        if (!failed) {
+            queue.add(new Entry(name, kind, delta, null));
+        }
+    }
+
+    // True once a write has failed; nothing recorded after that reaches the disk
+    public boolean isFailed() {
+        return failed;
+    }
+
+    /**
+     * Completes once every change recorded so far is on disk.
+     */
+    public CompletableFuture<Void> sync() {
+        CompletableFuture<Void> synced = new CompletableFuture<>();
+        queue.add(new Entry(null, null, 0L, synced));
+        return synced;
+    }
+
+    private void writeLoop() {
+        List<Entry> batch = new ArrayList<>(MAX_BATCH);
+        while (running || !queue.isEmpty()) {
+            try {
+                Entry first = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, MAX_BATCH - 1);
+                writeBatch(batch);
+                if (recordsSinceSnapshot >= SNAPSHOT_EVERY) {
+                    snapshot();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (IOException e) {
+                System.err.println("Wallet journal stopped: " + e.getMessage());
+                failed = true;
+                queue.drainTo(batch);
+                for (Entry entry : batch) {
+                    if (entry.synced() != null) {
+                        entry.synced().completeExceptionally(e);
+                    }
+                }
+            }
+            batch.clear();
+        }
+    }
+
+    // One write and one sync for the whole batch
+    private void writeBatch(List<Entry> batch) throws IOException {
+        if (failed) {
+            batch.forEach(entry -> {
+                if (entry.synced() != null) {
+                    entry.synced().completeExceptionally(new IOException("Wallet journal failed"));
+                }
+            });
+            return;
+        }
+        batchBuffer.clear();
+        long sequence = nextSequence;
+        for (Entry entry : batch) {
+            if (entry.account() == null) {
+                continue;
+            }
+            int payload = PAYLOAD_FIXED + entry.account().length;
+            ensureBatchCapacity(RECORD_HEADER + payload);
+            int start = batchBuffer.position();
+            batchBuffer.putInt(payload).putInt(0).putLong(sequence++).put((byte) entry.kind().ordinal())
+                    .putLong(entry.delta()).putShort((short) entry.account().length).put(entry.account());
+            crc.reset();
+            crc.update(batchBuffer.slice(start + RECORD_HEADER, payload));
+            batchBuffer.putInt(start + 4, (int) crc.getValue());
+        }
+        batchBuffer.flip();
+        if (batchBuffer.hasRemaining()) {
+            while (batchBuffer.hasRemaining()) {
+                segmentPosition += segment.write(batchBuffer, segmentPosition);
+            }
+            segment.force(false);
+        }
+        recordsSinceSnapshot += sequence - nextSequence;
+        nextSequence = sequence;
+        for (Entry entry : batch) {
+            if (entry.account() != null) {
+                durable.merge(new String(entry.account(), StandardCharsets.UTF_8), entry.delta(), Long::sum);
+            }
+            if (entry.synced() != null) {
+                entry.synced().complete(null);
+            }
+        }
+    }
+
+    private void ensureBatchCapacity(int bytes) {
+        if (batchBuffer.remaining() < bytes) {
+            ByteBuffer larger = ByteBuffer.allocateDirect(Math.max(batchBuffer.capacity() * 2, batchBuffer.position() + bytes));
+            batchBuffer.flip();
+            larger.put(batchBuffer);
+            batchBuffer = larger;
+        }
+    }
+
+    /**
+     * Saves the durable balances and starts a new segment, then drops the segments
+     * the snapshot covers. The snapshot is moved into place only once it is synced.
+     */
+    private void snapshot() throws IOException {
+        long lastSequence = nextSequence - 1;
+        int size = 4 + 8 + 4 + 4;
+        for (String account : durable.keySet()) {
+            size += 2 + account.getBytes(StandardCharsets.UTF_8).length + 8;
+        }
+        ByteBuffer snapshot = ByteBuffer.allocate(size);
+        snapshot.putInt(SNAPSHOT_MAGIC).putLong(lastSequence).putInt(durable.size());
+        for (Map.Entry<String, Long> entry : durable.entrySet()) {
+            byte[] name = entry.getKey().getBytes(StandardCharsets.UTF_8);
+            snapshot.putShort((short) name.length).put(name).putLong(entry.getValue());
+        }
+        crc.reset();
+        crc.update(snapshot.array(), 0, snapshot.position());
+        snapshot.putInt((int) crc.getValue()).flip();
+
+        Path temp = directory.resolve(SNAPSHOT_NAME + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (snapshot.hasRemaining()) {
+                channel.write(snapshot);
+            }
+            channel.force(true);
+        }
+        Files.move(temp, directory.resolve(SNAPSHOT_NAME), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+
+        segment.close();
+        for (Path old : segments()) {
+            Files.delete(old);
+        }
+        openSegment();
+        recordsSinceSnapshot = 0;
+    }
+
+    private void openSegment() throws IOException {
+        segment = FileChannel.open(directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, nextSequence, SEGMENT_SUFFIX)),
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        segmentPosition = 0;
+    }
+
+    // Segment files in sequence order; the zero-padded names sort numerically
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> {
+                String name = path.getFileName().toString();
+                return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+            }).sorted().toList();
+        }
+    }
+
+    private void recover() throws IOException {
+        Files.createDirectories(directory);
+        long snapshotSequence = loadSnapshot();
+        nextSequence = snapshotSequence + 1;
+
+        long replayed = 0;
+        for (Path path : segments()) {
+            if (Files.size(path) == 0) {
+                Files.delete(path); // Opened by an earlier run that recorded nothing
+                continue;
+            }
+            ByteBuffer data = ByteBuffer.wrap(Files.readAllBytes(path));
+            while (data.remaining() >= RECORD_HEADER) {
+                int start = data.position();
+                int payload = data.getInt(start);
+                if (payload < PAYLOAD_FIXED || payload > PAYLOAD_FIXED + MAX_NAME_BYTES
+                        || data.remaining() < RECORD_HEADER + payload) {
+                    break;
+                }
+                crc.reset();
+                crc.update(data.slice(start + RECORD_HEADER, payload));
+                if ((int) crc.getValue() != data.getInt(start + 4)) {
+                    break;
+                }
+                data.position(start + RECORD_HEADER);
+                long sequence = data.getLong();
+                data.get(); // Kind only matters for auditing
+                long delta = data.getLong();
+                byte[] name = new byte[data.getShort() & 0xFFFF];
+                data.get(name);
+                if (sequence >= nextSequence) {
+                    durable.merge(new String(name, StandardCharsets.UTF_8), delta, Long::sum);
+                    nextSequence = sequence + 1;
+                    replayed++;
+                }
+            }
+            if (data.hasRemaining()) {
+                // Only the last batch before a crash can be torn; what follows it was never synced
+                System.err.printf("Wallet journal: ignored %d bytes at the end of %s%n", data.remaining(), path);
+            }
+        }
+        balances.putAll(durable);
+        recordsSinceSnapshot = replayed;
+        // Always write into a fresh segment so a torn tail is never appended to
+        openSegment();
+    }
+
+    // Loads the snapshot into the durable balances and returns its last sequence, or -1
+    private long loadSnapshot() throws IOException {
+        Path path = directory.resolve(SNAPSHOT_NAME);
+        if (!Files.exists(path)) {
+            return -1L;
+        }
+        ByteBuffer data = ByteBuffer.wrap(Files.readAllBytes(path));
+        crc.reset();
+        crc.update(data.array(), 0, Math.max(0, data.limit() - 4));
+        if (data.limit() < 20 || data.getInt(0) != SNAPSHOT_MAGIC || (int) crc.getValue() != data.getInt(data.limit() - 4)) {
+            throw new IOException("Wallet snapshot is damaged: " + path);
+        }
+        data.position(4);
+        long lastSequence = data.getLong();
+        int count = data.getInt();
+        for (int i = 0; i < count; i++) {
+            byte[] name = new byte[data.getShort() & 0xFFFF];
+            data.get(name);
+            durable.put(new String(name, StandardCharsets.UTF_8), data.getLong());
+        }
+        return lastSequence;
+    }
+
+    // Writes and syncs everything queued, then stops the writer. It is not interrupted,
+    // since an interrupt would close the channel in the middle of a write, and for the
+    // same reason the segment stays open if the writer does not finish in time.
+    @Override
+    public void close() {
+        running = false;
+        try {
+            writer.join(5000);
+            if (writer.isAlive()) {
+                System.err.println("Wallet journal still writing; segment left open");
+                return;
+            }
+            segment.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
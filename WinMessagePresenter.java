@@ -0,0 +1,164 @@
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import javax.swing.JLabel;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+
+/**
+ * Shows win messages on the message label, one at a time, from a priority queue.
+ * Messages of the same kind are merged: per-cascade wins become one running total,
+ * so a deep cascade costs the same as a single win. A single Swing timer clears
+ * or advances the message; every method may be called from any thread.
+ */
+public class WinMessagePresenter {
+    public enum Kind {
+        INFO(0, 3000),
+        WIN(1, 3000),
+        MERMAID(2, 5000),
+        TOTAL(3, 8000);
+
+        private final int priority;
+        private final int duration;
+
+        Kind(int priority, int duration) {
+            this.priority = priority;
+            this.duration = duration;
+        }
+    }
+
+    private static class Message {
+        final Kind kind;
+        final long sequence;
+        long amount;
+        int count = 1;
+        double multiplier;
+        String text;
+        int duration;
+
+        Message(Kind kind, long sequence, long amount, double multiplier, String text, int duration) {
+            this.kind = kind;
+            this.sequence = sequence;
+            this.amount = amount;
+            this.multiplier = multiplier;
+            this.text = text;
+            this.duration = duration;
+        }
+    }
+
+    private final JLabel label;
+    private final Timer timer;
+    // Highest priority first, oldest first within a priority; holds at most one message per kind
+    private final PriorityQueue<Message> pending = new PriorityQueue<>(
+            Comparator.comparingInt((Message m) -> -m.kind.priority).thenComparingLong(m -> m.sequence));
+    private Message current;
+    private long sequence;
+
+    public WinMessagePresenter(JLabel label) {
+        this.label = label;
+        this.timer = new Timer(0, _ -> advance());
+        timer.setRepeats(false);
+    }
+
+    // A cascade step win in milli-credits
+    public void showWin(long amount) {
+        post(Kind.WIN, amount, 0.0, null, Kind.WIN.duration);
+    }
+
+    public void showMermaidWin(double multiplier, long amount) {
+        post(Kind.MERMAID, amount, multiplier, null, Kind.MERMAID.duration);
+    }
+
+    // Replaces the spin's step wins that are still showing or waiting
+    public void showTotal(long amount) {
+        post(Kind.TOTAL, amount, 0.0, null, Kind.TOTAL.duration);
+    }
+
+    public void showInfo(String text, int durationMs) {
+        post(Kind.INFO, 0L, 0.0, text, durationMs);
+    }
+
+    private void post(Kind kind, long amount, double multiplier, String text, int duration) {
+        if (!SwingUtilities.isEventDispatchThread()) {
+            SwingUtilities.invokeLater(() -> post(kind, amount, multiplier, text, duration));
+            return;
+        }
+
+        // The total of a spin replaces its step wins; a new spin's wins replace the old total
+        if (kind == Kind.TOTAL) {
+            discard(Kind.WIN);
+            discard(Kind.MERMAID);
+        } else if (kind == Kind.WIN || kind == Kind.MERMAID) {
+            discard(Kind.TOTAL);
+        }
+        if (current == null && !pending.isEmpty()) {
+            show(pending.poll());
+        }
+
+        if (current != null && current.kind == kind) {
+            merge(current, amount, multiplier, text, duration);
+            show(current);
+            return;
+        }
+        for (Message waiting : pending) {
+            if (waiting.kind == kind) {
+                merge(waiting, amount, multiplier, text, duration);
+                return;
+            }
+        }
+
+        Message message = new Message(kind, sequence++, amount, multiplier, text, duration);
+        if (current == null) {
+            show(message);
+        } else if (kind.priority > current.kind.priority) {
+            // Interrupted messages come back once the higher priority one is done
+            pending.add(current);
+            show(message);
+        } else {
+            pending.add(message);
+        }
+    }
+
+    private void discard(Kind kind) {
+        pending.removeIf(m -> m.kind == kind);
+        if (current != null && current.kind == kind) {
+            current = null;
+        }
+    }
+
+    private static void merge(Message message, long amount, double multiplier, String text, int duration) {
+        message.amount += amount;
+        message.count++;
+        message.multiplier = multiplier;
+        message.text = text;
+        message.duration = Math.max(message.duration, duration);
+    }
+
+    private void show(Message message) {
+        current = message;
+        label.setText(format(message));
+        timer.setInitialDelay(message.duration);
+        timer.restart();
+    }
+
+    private void advance() {
+        Message next = pending.poll();
+        if (next == null) {
+            current = null;
+            label.setText("");
+        } else {
+            show(next);
+        }
+    }
+
+    private static String format(Message message) {
+        double credits = Paytable.toCredits(message.amount);
+        return switch (message.kind) {
+            case WIN -> message.count > 1
+                    ? String.format("You Won $%.2f! (%d cascades)", credits, message.count)
+                    : String.format("You Won $%.2f!", credits);
+            case MERMAID -> String.format("Mermaid Multiplier (%.1fx): You Won $%.2f!", message.multiplier, credits);
+            case TOTAL -> String.format("Total Amount Won: $%.2f", credits);
+            case INFO -> message.text;
+        };
+    }
+}
@@ -0,0 +1,79 @@
+package slotmachine;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Login throughput of LoginService with many callers at once, as when a lot of
+ * players log in together. Vary the PBKDF2 cost and pool size with -p to pick
+ * settings for -Dlogin.iterations and -Dlogin.threads.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(value = 1, jvmArgsAppend = "--enable-preview")
+@Threads(16)
+@State(Scope.Benchmark)
+public class LoginServiceBenchmark {
+    private static final int USERS = 256;
+    private static final String PASSWORD = "correct horse battery staple";
+
+    @Param({"10000", "100000", "210000"})
+    public int iterations;
+
+    @Param({"2", "4", "8"})
+    public int workers;
+
+    private Path directory;
+    private AccountStore accounts;
+    private LoginService service;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("login-bench");
+        accounts = AccountStore.open(directory);
+        // A large queue so the benchmark measures hashing, not rejections
+        service = new LoginService(accounts, iterations, workers, 1024);
+        for (int i = 0; i < USERS; i++) {
+            service.register("user" + i, PASSWORD.toCharArray()).join();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        service.close();
+        accounts.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public boolean login() {
+        String user = "user" + ThreadLocalRandom.current().nextInt(USERS);
+        CompletableFuture<LoginService.Result> result = service.login(user, PASSWORD.toCharArray());
+        return result.join().isOk();
+    }
+}
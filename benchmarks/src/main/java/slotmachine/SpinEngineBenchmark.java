@@ -0,0 +1,105 @@
+package slotmachine;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Hot paths of SpinEngine. Inputs are drawn from a pool of pre-generated grids
+ * so the JIT cannot fold a single constant grid away.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--enable-preview")
+@State(Scope.Thread)
+public class SpinEngineBenchmark {
+    private static final int GRID_POOL = 1024; // Power of two so the index can wrap with a mask
+    private static final long BET = Paytable.MILLIS_PER_CREDIT;
+
+    private SpinEngine engine;
+    private SymbolGrid[] grids;
+    private int[][] counts;
+    private long[] matched;
+    private SymbolGrid scratchGrid;
+    private int[] scratchCounts;
+    private SpinResult result;
+    private int next;
+
+    @Setup
+    public void setup() {
+        engine = new SpinEngine(new SplittableRandom(42));
+        grids = new SymbolGrid[GRID_POOL];
+        counts = new int[GRID_POOL][];
+        matched = new long[GRID_POOL];
+        scratchGrid = new SymbolGrid(SpinEngine.SYMBOLS.length);
+        scratchCounts = new int[SpinEngine.SYMBOLS.length];
+        result = new SpinResult();
+        for (int i = 0; i < GRID_POOL; i++) {
+            grids[i] = new SymbolGrid(SpinEngine.SYMBOLS.length);
+            engine.generateFinalGrid(grids[i]);
+            counts[i] = new int[SpinEngine.SYMBOLS.length];
+            engine.countSymbols(grids[i], counts[i]);
+            matched[i] = engine.markMatchingPositions(grids[i], counts[i]);
+        }
+    }
+
+    private int nextIndex() {
+        next = (next + 1) & (GRID_POOL - 1);
+        return next;
+    }
+
+    @Benchmark
+    public Symbol getRandomSymbol() {
+        return engine.getRandomSymbol();
+    }
+
+    @Benchmark
+    public SymbolGrid generateFinalGrid() {
+        engine.generateFinalGrid(scratchGrid);
+        return scratchGrid;
+    }
+
+    @Benchmark
+    public int[] countSymbols() {
+        engine.countSymbols(grids[nextIndex()], scratchCounts);
+        return scratchCounts;
+    }
+
+    @Benchmark
+    public long markMatchingPositions() {
+        int i = nextIndex();
+        return engine.markMatchingPositions(grids[i], counts[i]);
+    }
+
+    @Benchmark
+    public long calculateWinAmount() {
+        return engine.calculateWinAmount(counts[nextIndex()], BET);
+    }
+
+    // Works on a copy since cascadeSymbols collapses and refills the grid in place
+    @Benchmark
+    public SymbolGrid cascadeSymbols() {
+        int i = nextIndex();
+        scratchGrid.copyFrom(grids[i]);
+        engine.cascadeSymbols(scratchGrid, matched[i]);
+        return scratchGrid;
+    }
+
+    // Whole spin: initial grid plus every cascade until a losing evaluation
+    @Benchmark
+    public SpinResult fullSpin() {
+        return engine.evaluate(BET, result);
+    }
+}